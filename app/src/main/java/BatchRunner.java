@@ -0,0 +1,107 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lib.RosterImport;
+import lib.UserService;
+
+/**
+ * Command line entry point for unattended batch jobs: generate, image search
+ * and save a post for every veteran in a roster CSV, without a display.
+ *
+ * Usage: java BatchRunner roster.csv [--user NAME] [--images N]
+ *
+ * The password for --user (or DIMF_USER) is read from DIMF_PASSWORD, so it
+ * never shows up in the process list. Without a user, posts are saved without
+ * a creator. Parallelism, rate limit and backend are set with the same system
+ * properties as the app (dimf.import.*, dimf.api.baseUrl, ...). A job that is
+ * stopped can be run again with the same file and continues where it left off.
+ *
+ * Prints each row as it finishes and the throughput in posts per minute.
+ * Exits with 0 if every row was saved, 1 if some failed, 2 on bad arguments.
+ */
+public class BatchRunner {
+    public static void main(String[] args) {
+        // Image hashing uses AWT imaging; make sure it never looks for a display
+        System.setProperty("java.awt.headless", "true");
+
+        Path roster = null;
+        String username = System.getenv("DIMF_USER");
+        int imagesPerPost = 5;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--user" -> username = args[++i];
+                    case "--images" -> imagesPerPost = Integer.parseInt(args[++i]);
+                    default -> roster = Paths.get(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            roster = null;
+        }
+        if (roster == null || !Files.isReadable(roster)) {
+            System.err.println("Usage: java BatchRunner roster.csv [--user NAME] [--images N]");
+            System.err.println("  CSV columns: name, date of death. Password is read from DIMF_PASSWORD.");
+            System.exit(2);
+        }
+
+        if (username != null && !username.isEmpty()) {
+            String password = System.getenv("DIMF_PASSWORD");
+            UserService.AuthResult auth = UserService.loginAsync(username, password != null ? password : "").join();
+            if (!auth.success) {
+                System.err.println("Login failed: " + auth.message);
+                System.exit(2);
+            }
+        }
+
+        try {
+            System.exit(run(roster, imagesPerPost));
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static int run(Path roster, int imagesPerPost) throws Exception {
+        RosterImport rosterImport = new RosterImport(roster);
+        rosterImport.setImagesPerPost(imagesPerPost);
+
+        int total = rosterImport.getRows().size();
+        int savedEarlier = rosterImport.getDoneCount();
+        System.out.println("Roster: " + roster + " - " + total + " rows, " + savedEarlier + " saved by an earlier run");
+
+        for (RosterImport.Row row : rosterImport.getRows()) {
+            if (row.status == RosterImport.Status.FAILED) {
+                System.out.printf("[%d/%d] SKIPPED %s: %s%n", row.index + 1, total, row.name, row.error);
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        rosterImport.start(row -> {
+            if (row.status == RosterImport.Status.DONE) {
+                int count = saved.incrementAndGet();
+                System.out.printf("[%d/%d] saved  %s (%s) -> post %d, %d images, %.1f posts/min%n",
+                    row.index + 1, total, row.name, row.dod, row.postId, row.imagesSaved,
+                    postsPerMinute(count, startedAt));
+            } else if (row.status == RosterImport.Status.FAILED) {
+                failed.incrementAndGet();
+                System.out.printf("[%d/%d] FAILED %s (%s): %s%n", row.index + 1, total, row.name, row.dod, row.error);
+            }
+        }).join();
+
+        // Rows that couldn't be read never run, but still count as failed
+        int notImported = total - savedEarlier - saved.get() - failed.get();
+        double minutes = (System.nanoTime() - startedAt) / 60e9;
+        System.out.printf("Done: %d saved, %d failed, %d saved earlier in %.1f min - %.1f posts/min%n",
+            saved.get(), failed.get() + notImported, savedEarlier, minutes, postsPerMinute(saved.get(), startedAt));
+        return failed.get() + notImported == 0 ? 0 : 1;
+    }
+
+    private static double postsPerMinute(int posts, long startedAt) {
+        double minutes = (System.nanoTime() - startedAt) / 60e9;
+        return minutes > 0 ? posts / minutes : 0;
+    }
+}
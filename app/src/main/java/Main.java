@@ -1,6 +1,5 @@
 import components.auth.LoginDialog;
 import components.sections.*;
-import lib.PostService;
 import lib.UserService;
 import javax.swing.*;
 import java.awt.*;
@@ -61,7 +60,7 @@ public class Main {
         String username = UserService.getCurrentUsername();
         
         // Left-side panel
-        DefaultListModel<String> previousPostsModel = new DefaultListModel<>();
+        PostListModel previousPostsModel = new PostListModel();
         JButton downloadExcelButton = new JButton("Download Excel");
         
         // Create form panel with platform selector and image uploader
@@ -90,8 +89,8 @@ public class Main {
         // Add combined right side to CENTER
         frame.add(rightPanel, BorderLayout.CENTER);
         
-        // Load posts - using PostService
-        PostService.loadPosts(previousPostsModel);
+        // Show cached posts, then sync; later pages load as the sidebar scrolls
+        previousPostsModel.start();
         
         frame.setVisible(true);
     }
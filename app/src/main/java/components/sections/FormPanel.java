@@ -7,19 +7,24 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 import com.github.lgooddatepicker.components.DatePicker;
 import com.github.lgooddatepicker.components.DatePickerSettings;
 
+import lib.ApiClient;
+import lib.ImageSavePipeline;
 import lib.ImageService;
+import lib.PostPrefetcher;
 import lib.PostService;
+import lib.ServiceExecutor;
 
 /**
  * Panel for creating and editing memorial posts
@@ -37,6 +42,7 @@ public class FormPanel extends JPanel {
     
     // UI Components - Buttons
     private JButton generateButton;
+    private JButton newVariantButton;
     private JButton manualInputButton;
     private JButton saveButton;
     private JButton deleteButton;
@@ -50,9 +56,18 @@ public class FormPanel extends JPanel {
     // State variables
     private PostService.PostData currentPostData = new PostService.PostData();
     private boolean isGenerating = false;
-    private DefaultListModel<String> sidebarModel;
+    // Streamed text waiting for the EDT, and whether a flush is already queued; guarded by itself
+    private final StringBuilder pendingGeneratedText = new StringBuilder();
+    private boolean generatedTextFlushQueued = false;
+    private boolean generatedTextStarted = false;
+    private PostListModel sidebarModel;
     private String currentSearchQuery = "";
     private List<Integer> previousPlatformIds = new ArrayList<>();
+    // Bumped by every post load so a late result from an earlier load is ignored
+    private int loadGeneration = 0;
+    private CompletableFuture<PostService.PostData> pendingLoad;
+    // Images linked to the current post on the server, by URL, as of the last load or save
+    private Map<String, Integer> savedImageIds = new HashMap<>();
     
     /**
      * Constructs a new form panel
@@ -162,6 +177,13 @@ public class FormPanel extends JPanel {
         generateButton.addActionListener(this::handleGenerateButtonClick);
         generateButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
         
+        // New variant button, shown once a draft is on screen; Generate reuses the cached draft
+        newVariantButton = new JButton("New Variant");
+        newVariantButton.setToolTipText("Write a different draft from the same search results");
+        newVariantButton.addActionListener(e -> startGeneration(true));
+        newVariantButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        newVariantButton.setVisible(false);
+        
         // Save button
         saveButton = new JButton("Save Post");
         saveButton.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -227,10 +249,12 @@ public class FormPanel extends JPanel {
             aiContentArea.setText("");
             aiContentArea.setEditable(true);
             manualInputButton.setVisible(false);  // hide itself after click
+            newVariantButton.setVisible(false);
             revalidate();
             repaint();
         });
 
+        generateButtonPanel.add(newVariantButton);
         generateButtonPanel.add(generateButton);
         generateButtonPanel.add(manualInputButton);
         add(generateButtonPanel);
@@ -247,14 +271,22 @@ public class FormPanel extends JPanel {
     /**
      * Set the sidebar model for updates
      */
-    public void setSidebarModel(DefaultListModel<String> model) {
+    public void setSidebarModel(PostListModel model) {
         this.sidebarModel = model;
     }
     
     /**
-     * Handle click on the generate button
+     * Handle click on the generate button; a draft cached for the same veteran is reused
      */
     private void handleGenerateButtonClick(ActionEvent e) {
+        startGeneration(false);
+    }
+    
+    /**
+     * Generate content for the name and date in the form
+     * @param newVariant Write a new draft instead of reusing a cached one
+     */
+    private void startGeneration(boolean newVariant) {
         if (isGenerating) {
             return;
         }
@@ -275,7 +307,7 @@ public class FormPanel extends JPanel {
         currentSearchQuery = searchQuery;
         
         // Generate content
-        generateContent(name, dod, needNewImageSearch);
+        generateContent(name, dod, needNewImageSearch, newVariant);
     }
     
     /**
@@ -307,6 +339,7 @@ public class FormPanel extends JPanel {
     private void setGeneratingState(boolean generating) {
         isGenerating = generating;
         generateButton.setEnabled(!generating);
+        newVariantButton.setEnabled(!generating);
         generateButton.setText(generating ? "Post Generating..." : "Generate Post");
     }
     
@@ -324,9 +357,21 @@ public class FormPanel extends JPanel {
     
     /**
      * Generate post content
+     *
+     * The text is streamed into the content area while the model writes it.
+     * Pieces that arrive while the EDT is busy are appended together in one
+     * update, so a fast stream costs a handful of repaints rather than one per token.
      */
-    private void generateContent(String name, String dod, boolean performImageSearch) {
-        PostService.generatePostContent(name, dod, content -> {
+    private void generateContent(String name, String dod, boolean performImageSearch, boolean newVariant) {
+        generatedTextStarted = false;
+        
+        CompletableFuture<String> generation = PostService.generatePostContentStreamingAsync(name, dod,
+            newVariant, this::queueGeneratedText);
+        ServiceExecutor.deliver(generation, content -> {
+            // Everything streamed is in the final text, so drop what hasn't been shown yet
+            synchronized (pendingGeneratedText) {
+                pendingGeneratedText.setLength(0);
+            }
             updateUIWithGeneratedContent(name, dod, content);
             
             if (performImageSearch) {
@@ -334,12 +379,49 @@ public class FormPanel extends JPanel {
             }
             
             setGeneratingState(false);
-            generateButton.setText("Regenerate Post");
+            newVariantButton.setVisible(!content.startsWith("Error: "));
             
             // Force layout update
             revalidate();
             repaint();
-        });
+        }, e -> "Error: " + e.getMessage());
+    }
+    
+    /**
+     * Queue a piece of streamed text for the content area; called off the EDT
+     */
+    private void queueGeneratedText(String delta) {
+        synchronized (pendingGeneratedText) {
+            pendingGeneratedText.append(delta);
+            if (generatedTextFlushQueued) {
+                return;
+            }
+            generatedTextFlushQueued = true;
+        }
+        SwingUtilities.invokeLater(this::flushGeneratedText);
+    }
+    
+    /**
+     * Append everything streamed since the last flush in a single update
+     */
+    private void flushGeneratedText() {
+        String text;
+        synchronized (pendingGeneratedText) {
+            text = pendingGeneratedText.toString();
+            pendingGeneratedText.setLength(0);
+            generatedTextFlushQueued = false;
+        }
+        if (text.isEmpty() || !isGenerating) {
+            return;
+        }
+        
+        if (!generatedTextStarted) {
+            // Replace the "Generating Post..." placeholder with the first words
+            generatedTextStarted = true;
+            aiContentArea.setText(text.stripLeading());
+        } else {
+            aiContentArea.append(text);
+        }
     }
     
     /**
@@ -435,102 +517,144 @@ public class FormPanel extends JPanel {
         saveButton.setEnabled(enabled);
         deleteButton.setEnabled(enabled);
         generateButton.setEnabled(enabled);
+        newVariantButton.setEnabled(enabled);
     }
     
     /**
      * Save post to database
+     *
+     * The save, the platform and image updates and the final UI update run as
+     * one chain: platforms and images can only be saved once the post has an ID,
+     * so both start after the post save and run side by side, and the form is
+     * only re-enabled once everything is done.
      */
     private void savePostToDatabase() {
-        PostService.savePost(currentPostData, postResult -> {
-            if (!postResult.success) {
-                handleSaveError(postResult.message);
+        // Capture the selections on the EDT before the chain leaves it
+        List<Integer> selectedPlatforms = platformSelector.getSelectedPlatformIds();
+        List<String> imageUrls = imageUploader.getImageUrls();
+        List<String> addedImageUrls = new ArrayList<>();
+        List<Integer> removedImageIds = new ArrayList<>();
+        diffImages(imageUrls, addedImageUrls, removedImageIds);
+        List<String> keptImageUrls = new ArrayList<>(imageUrls);
+        keptImageUrls.removeAll(addedImageUrls);
+        
+        CompletableFuture<PostService.SaveResult> saveFuture = PostService.savePostAsync(currentPostData);
+        CompletableFuture<Boolean> platformsFuture = saveFuture.thenCompose(postResult ->
+            postResult.success && postResult.postId > 0
+                ? PostService.updatePostPlatformsAsync(postResult.postId, selectedPlatforms)
+                : CompletableFuture.completedFuture(false));
+        CompletableFuture<ImageSavePipeline.SaveReport> imagesFuture = saveFuture.thenCompose(postResult ->
+            postResult.success && postResult.postId > 0
+                ? ImageSavePipeline.saveImages(postResult.postId, addedImageUrls, removedImageIds, keptImageUrls)
+                : CompletableFuture.completedFuture(new ImageSavePipeline.SaveReport()));
+        
+        CompletableFuture.allOf(platformsFuture, imagesFuture).whenComplete((v, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                handleSaveError("Error: " + ServiceExecutor.unwrap(error).getMessage());
                 return;
             }
-            
-            // Get post ID from result
-            int postId = postResult.postId;
-            System.out.println("DEBUG - FormPanel received post ID from save result: " + postId);
-            
-            // Check if we have a valid post ID
-            if (postId > 0) {
-                // Update current post data
-                currentPostData.postId = postId;
-                
-                // Set the post ID in the image uploader for future delete operations
-                imageUploader.setCurrentPostId(postId);
-                
-                // Update platform selections
-                updatePlatformsForPost(postId);
-                
-                // Show delete button (now we have a valid post ID)
-                deleteButton.setVisible(true);
-                
-                // Images are already linked on the server side in the replace_post_images method
-                // so we don't need to process images here
-                finalizeSaveOperation(postResult);
-            } else {
-                // No valid post ID, but operation was successful
-                System.out.println("DEBUG - Warning: Save was successful but no valid post ID returned");
-                
-                // Show a warning to the user
-                JOptionPane.showMessageDialog(
-                    FormPanel.this,
-                    "Post saved successfully, but the system couldn't retrieve the post ID. Some features may not work correctly.",
-                    "Warning",
-                    JOptionPane.WARNING_MESSAGE
-                );
-                
-                setButtonsEnabled(true);
-                saveButton.setText("Save Post");
-            }
-        });
+            handleSaveComplete(saveFuture.join(), selectedPlatforms, platformsFuture.join(), imagesFuture.join());
+        }));
     }
     
     /**
-     * Handle save error
+     * Work out which images have to be sent to the server.
+     *
+     * Images with an ID in the image panel are already linked to the post, so
+     * only images without one are added, and only saved images that are no
+     * longer shown are removed. Re-saving a post after a text edit sends none.
      */
-    private void handleSaveError(String message) {
-        setButtonsEnabled(true);
-        saveButton.setText("Save Post");
-        JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+    private void diffImages(List<String> imageUrls, List<String> addedImageUrls, List<Integer> removedImageIds) {
+        Map<String, Integer> knownImageIds = imageUploader.getImageIds();
+        
+        for (String url : imageUrls) {
+            if (knownImageIds.containsKey(url)) {
+                continue;
+            }
+            Integer savedId = savedImageIds.get(url);
+            if (savedId != null) {
+                // Shown again after the panel was cleared, e.g. by a new image search; still linked
+                imageUploader.associateImageWithId(url, savedId);
+                knownImageIds.put(url, savedId);
+            } else {
+                addedImageUrls.add(url);
+            }
+        }
+        
+        for (Map.Entry<String, Integer> entry : savedImageIds.entrySet()) {
+            if (!knownImageIds.containsValue(entry.getValue())) {
+                removedImageIds.add(entry.getValue());
+            }
+        }
+        
+        System.out.println("DEBUG - Image changes to save - Added: " + addedImageUrls + ", Removed IDs: " + removedImageIds);
     }
     
     /**
-     * Handle successful post save
+     * Update the form once the save chain has finished
      */
-    private void handleSuccessfulSave(int postId, PostService.SaveResult postResult) {
-        System.out.println("DEBUG - Post saved successfully - Post ID from result: " + postId);
-        
-        // Update current post data with the new post ID
-        currentPostData.postId = postId;
+    private void handleSaveComplete(PostService.SaveResult postResult, List<Integer> selectedPlatforms,
+            boolean platformsUpdated, ImageSavePipeline.SaveReport imageReport) {
+        if (!postResult.success) {
+            handleSaveError(postResult.message);
+            return;
+        }
         
-        // Update the image uploader's post ID first
-        imageUploader.setCurrentPostId(postId);
+        // Get post ID from result
+        int postId = postResult.postId;
+        System.out.println("DEBUG - FormPanel received post ID from save result: " + postId);
         
-        // Now process images if there are any
-        if (!currentPostData.imagePaths.isEmpty()) {
-            processImages(postId, postResult);
-        } else {
-            // Update platform selections
-            updatePlatformsForPost(postId);
+        // Check if we have a valid post ID
+        if (postId > 0) {
+            // Update current post data
+            currentPostData.postId = postId;
+            
+            // A prefetched copy of this post is now out of date
+            PostPrefetcher.invalidate(postId);
             
-            // Update delete button visibility (now we have a valid post ID)
+            // Set the post ID in the image uploader for future delete operations
+            imageUploader.setCurrentPostId(postId);
+            
+            // Apply the result of the platform update
+            handlePlatformsUpdated(postId, selectedPlatforms, platformsUpdated);
+            
+            // Apply the result of the image save
+            handleImagesSaved(postId, imageReport);
+            
+            // Show delete button (now we have a valid post ID)
             deleteButton.setVisible(true);
             
-            finalizeSaveOperation(postResult);
+            finalizeSaveOperation(postResult, imageReport);
+        } else {
+            // No valid post ID, but operation was successful
+            System.out.println("DEBUG - Warning: Save was successful but no valid post ID returned");
+            
+            // Show a warning to the user
+            JOptionPane.showMessageDialog(
+                FormPanel.this,
+                "Post saved successfully, but the system couldn't retrieve the post ID. Some features may not work correctly.",
+                "Warning",
+                JOptionPane.WARNING_MESSAGE
+            );
+            
+            setButtonsEnabled(true);
+            saveButton.setText("Save Post");
         }
     }
     
     /**
-     * Update platform selections for the post
+     * Handle save error
      */
-    private void updatePlatformsForPost(int postId) {
-        // Set the post ID in the image uploader for future delete operations
-        imageUploader.setCurrentPostId(postId);
-        
-        // Get selected platform IDs
-        List<Integer> selectedPlatforms = platformSelector.getSelectedPlatformIds();
-        
+    private void handleSaveError(String message) {
+        setButtonsEnabled(true);
+        saveButton.setText("Save Post");
+        JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    /**
+     * Record a finished platform update and open URLs for newly selected platforms
+     */
+    private void handlePlatformsUpdated(int postId, List<Integer> selectedPlatforms, boolean success) {
         // Find newly selected platforms (not in previous selection)
         List<Integer> newlySelectedPlatformIds = new ArrayList<>(selectedPlatforms);
         newlySelectedPlatformIds.removeAll(previousPlatformIds);
@@ -541,23 +665,20 @@ public class FormPanel extends JPanel {
         
         // Store the current selection for future reference
         currentPostData.platformIds = selectedPlatforms;
-
-        // Update platforms in the database
-        PostService.updatePostPlatforms(postId, selectedPlatforms, success -> {
-            if (!success) {
-                System.out.println("DEBUG - Failed to update platform selections for post ID: " + postId);
-            } else {
-                System.out.println("DEBUG - Platform selections updated successfully for post ID: " + postId);
-                
-                // Open URLs for newly selected platforms if there are any
-                if (!newlySelectedPlatformIds.isEmpty()) {
-                    openPlatformUrls(newlySelectedPlatformIds, postId);
-                }
-            }
+        
+        if (!success) {
+            System.out.println("DEBUG - Failed to update platform selections for post ID: " + postId);
+        } else {
+            System.out.println("DEBUG - Platform selections updated successfully for post ID: " + postId);
             
-            // Update previous selection for next time
-            previousPlatformIds = new ArrayList<>(selectedPlatforms);
-        });
+            // Open URLs for newly selected platforms if there are any
+            if (!newlySelectedPlatformIds.isEmpty()) {
+                openPlatformUrls(newlySelectedPlatformIds, postId);
+            }
+        }
+        
+        // Update previous selection for next time
+        previousPlatformIds = new ArrayList<>(selectedPlatforms);
     }
     
     /**
@@ -612,14 +733,14 @@ public class FormPanel extends JPanel {
                             final String finalUrl = urlToOpen;
                             System.out.println("DEBUG - Opening URL: " + finalUrl);
                             
-                            // Open in a separate thread to avoid UI freezing
-                            new Thread(() -> {
+                            // Open on the shared executor to avoid UI freezing
+                            ServiceExecutor.runAsync(() -> {
                                 try {
                                     lib.BrowserUtil.openUrl(finalUrl);
                                 } catch (Exception e) {
                                     System.out.println("DEBUG - Error opening URL: " + e.getMessage());
                                 }
-                            }).start();
+                            });
                         } catch (java.io.UnsupportedEncodingException e) {
                             System.out.println("DEBUG - Error encoding URL parameters: " + e.getMessage());
                         }
@@ -660,150 +781,53 @@ public class FormPanel extends JPanel {
     }
     
     /**
-     * Finalize save operation when no images need processing
-     */
-    private void finalizeSaveOperation(PostService.SaveResult postResult) {
-        System.out.println("DEBUG - No images to process");
-        setButtonsEnabled(true);
-        saveButton.setText("Save Post");
-        
-        // Show success message
-        JOptionPane.showMessageDialog(this, 
-            postResult.message, "Success", JOptionPane.INFORMATION_MESSAGE);
-        
-        refreshSidebarAndUI();
-    }
-    
-    /**
-     * Process images for the post
+     * Record the image IDs the server assigned and which images are now linked
      */
-    private void processImages(int postId, PostService.SaveResult postResult) {
-        // Verify valid post ID
-        if (postId <= 0) {
-            handleInvalidPostId();
-            return;
+    private void handleImagesSaved(int postId, ImageSavePipeline.SaveReport imageReport) {
+        for (ImageSavePipeline.ImageSaveResult result : imageReport.results) {
+            if ("duplicate".equals(result.status)) {
+                // Not saved because it looks the same as another image of the post
+                imageUploader.removeImage(result.url);
+            } else if (result.url == null) {
+                // A removal; keep tracking it if the unlink failed so the next save retries it
+                if (result.isSuccess()) {
+                    savedImageIds.values().remove(result.imageId);
+                }
+            } else if (result.isSuccess() && result.imageId > 0) {
+                imageUploader.associateImageWithId(result.url, result.imageId);
+                savedImageIds.put(result.url, result.imageId);
+            }
         }
         
-        // Set up for image processing
-        final int finalPostId = postId;
-        final int[] imagesProcessed = {0};
-        final int totalImages = currentPostData.imagePaths.size();
-        final boolean[] hasErrors = {false};
-        
-        System.out.println("DEBUG - Starting to process " + totalImages + " images for post ID: " + finalPostId);
-        
-        // Process each image
-        for (String imageUrl : currentPostData.imagePaths) {
-            processImage(imageUrl, finalPostId, imagesProcessed, totalImages, hasErrors, postResult);
-        }
+        System.out.println("DEBUG - Image save finished for post ID: " + postId + " - Results: "
+            + imageReport.results.size() + ", Failures: " + imageReport.getFailures().size());
     }
     
-    
-    
     /**
-     * Handle invalid post ID
+     * Finish the save and tell the user how it went
      */
-    private void handleInvalidPostId() {
-        System.out.println("DEBUG - Invalid post ID for image linking");
+    private void finalizeSaveOperation(PostService.SaveResult postResult, ImageSavePipeline.SaveReport imageReport) {
         setButtonsEnabled(true);
         saveButton.setText("Save Post");
         
-        JOptionPane.showMessageDialog(this, 
-            "Post saved but couldn't get a valid ID for image linking. Please try again.", 
-            "Warning", JOptionPane.WARNING_MESSAGE);
-            
-        refreshSidebarAndUI();
-    }
-    
-    /**
-     * Process a single image
-     */
-    private void processImage(String imageUrl, int postId, int[] imagesProcessed, 
-            int totalImages, boolean[] hasErrors, PostService.SaveResult postResult) {
-        
-        System.out.println("DEBUG - Processing image URL: " + imageUrl + " for post ID: " + postId);
-        
-        // First save the image
-        ImageService.addImage(imageUrl, "", imageResult -> {
-            if (imageResult.success && imageResult.imageId > 0) {
-                // Then link it to the post
-                int imageId = imageResult.imageId;
-                // Ensure we're using the correct post ID
-                linkImageToPost(imageId, postId, imagesProcessed, totalImages, hasErrors, postResult);
-            } else {
-                handleImageAddError(imageUrl, imageResult.message, imagesProcessed, totalImages, hasErrors, postResult);
-            }
-        });
-    }
-    
-    /**
-     * Link image to post
-     */
-    private void linkImageToPost(int imageId, int postId, int[] imagesProcessed, 
-            int totalImages, boolean[] hasErrors, PostService.SaveResult postResult) {
-        
-        System.out.println("DEBUG - Image added successfully - Image ID: " + imageId + " for post ID: " + postId);
-        
-        ImageService.linkImageToPost(postId, imageId, linkResult -> {
-            synchronized (imagesProcessed) {
-                imagesProcessed[0]++;
-                
-                if (linkResult.success) {
-                    System.out.println("DEBUG - Image linked successfully - Image ID: " + imageId + ", Post ID: " + postId);
-                } else {
-                    System.out.println("DEBUG - Failed to link image - Image ID: " + imageId + ", Post ID: " + postId);
-                    System.out.println("DEBUG - Error: " + linkResult.message);
-                    hasErrors[0] = true;
-                }
-                
-                checkImageProcessingComplete(imagesProcessed[0], totalImages, hasErrors[0], postResult);
+        // Show appropriate message
+        List<ImageSavePipeline.ImageSaveResult> failures = imageReport.getFailures();
+        if (!failures.isEmpty()) {
+            StringBuilder message = new StringBuilder("Post saved but " + failures.size() + " of "
+                + imageReport.results.size() + " images could not be saved:\n");
+            for (ImageSavePipeline.ImageSaveResult failure : failures) {
+                String image = failure.url != null ? failure.url : "Image ID " + failure.imageId + " (remove)";
+                message.append("\n").append(image).append(" - ").append(failure.error)
+                    .append(" (").append(failure.attempts).append(" attempts)");
             }
-        });
-    }
-    
-    /**
-     * Handle image add error
-     */
-    private void handleImageAddError(String imageUrl, String message, int[] imagesProcessed, 
-            int totalImages, boolean[] hasErrors, PostService.SaveResult postResult) {
-        
-        System.out.println("DEBUG - Failed to add image: " + imageUrl);
-        System.out.println("DEBUG - Error: " + message);
-        
-        synchronized (imagesProcessed) {
-            imagesProcessed[0]++;
-            hasErrors[0] = true;
-            
-            checkImageProcessingComplete(imagesProcessed[0], totalImages, hasErrors[0], postResult);
+            JOptionPane.showMessageDialog(this, 
+                message.toString(), "Partial Success", JOptionPane.WARNING_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                postResult.message, "Success", JOptionPane.INFORMATION_MESSAGE);
         }
-    }
-    
-    /**
-     * Check if image processing is complete
-     */
-    private void checkImageProcessingComplete(int processed, int total, boolean hasErrors, 
-            PostService.SaveResult postResult) {
         
-        if (processed >= total) {
-            System.out.println("DEBUG - All images processed - Total: " + total + ", Errors: " + hasErrors);
-            
-            SwingUtilities.invokeLater(() -> {
-                setButtonsEnabled(true);
-                saveButton.setText("Save Post");
-                
-                // Show appropriate message
-                if (hasErrors) {
-                    JOptionPane.showMessageDialog(FormPanel.this, 
-                        "Post saved but some images could not be processed.", 
-                        "Partial Success", JOptionPane.WARNING_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(FormPanel.this, 
-                        postResult.message, "Success", JOptionPane.INFORMATION_MESSAGE);
-                }
-                
-                refreshSidebarAndUI();
-            });
-        }
+        refreshSidebarAndUI();
     }
     
     /**
@@ -866,14 +890,8 @@ public class FormPanel extends JPanel {
             @Override
             protected Boolean doInBackground() throws Exception {
                 try {
-                    // Create the DELETE request
-                    URL deleteUrl = new URL(PostService.getApiBaseUrl() + "/posts/" + postId);
-                    HttpURLConnection conn = (HttpURLConnection) deleteUrl.openConnection();
-                    conn.setRequestMethod("DELETE");
-                    
-                    // Get the response code
-                    int responseCode = conn.getResponseCode();
-                    return responseCode >= 200 && responseCode < 300;
+                    // Send the DELETE request through the shared client
+                    return ApiClient.delete("/posts/" + postId).isSuccess();
                 } catch (Exception e) {
                     e.printStackTrace();
                     return false;
@@ -891,6 +909,7 @@ public class FormPanel extends JPanel {
                     deleteButton.setText("Delete Post");
                     
                     if (success) {
+                        PostPrefetcher.invalidate(postId);
                         JOptionPane.showMessageDialog(FormPanel.this,
                             "Post deleted successfully.",
                             "Delete Successful",
@@ -899,7 +918,7 @@ public class FormPanel extends JPanel {
                         // Reset form and refresh sidebar
                         resetForm();
                         if (sidebarModel != null) {
-                            PostService.loadPosts(sidebarModel);
+                            sidebarModel.refresh();
                         }
                     } else {
                         JOptionPane.showMessageDialog(FormPanel.this,
@@ -929,29 +948,58 @@ public class FormPanel extends JPanel {
      */
     private void refreshSidebarAndUI() {
         if (sidebarModel != null) {
-            PostService.loadPosts(sidebarModel);
+            sidebarModel.refresh();
             platformSelector.refresh();
         }
     }
     
     /**
-     * Load a post by name
+     * Load a post by ID
+     *
+     * Starting a load cancels the one before it, so clicking quickly through the
+     * sidebar aborts the earlier requests instead of letting them finish and
+     * overwrite the form with an older post. A post the sidebar has prefetched
+     * is taken from PostPrefetcher instead of being requested again.
      */
-    public void loadPostByName(String name) {
+    public void loadPostById(int postId) {
+        int generation = cancelPendingLoad();
         setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         
-        PostService.loadPostByName(name, postData -> {
+        CompletableFuture<PostService.PostData> load = PostPrefetcher.get(postId);
+        if (load == null) {
+            load = PostService.loadPostByIdAsync(postId);
+        }
+        pendingLoad = load;
+        load.whenComplete((postData, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                // Superseded by a newer load
+                return;
+            }
+            pendingLoad = null;
             setCursor(Cursor.getDefaultCursor());
             
-            if (postData == null) {
+            if (error != null || postData == null) {
                 JOptionPane.showMessageDialog(this, 
-                    "Failed to load post: " + name, 
+                    "Failed to load post: " + postId, 
                     "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
             
             loadPostDataIntoForm(postData);
-        });
+        }));
+    }
+    
+    /**
+     * Abandon the post load in progress, if any
+     * @return The generation of the next load
+     */
+    private int cancelPendingLoad() {
+        loadGeneration++;
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+            pendingLoad = null;
+        }
+        return loadGeneration;
     }
     
     /**
@@ -972,6 +1020,14 @@ public class FormPanel extends JPanel {
         
         // Store current platforms as previous
         previousPlatformIds = new ArrayList<>(postData.platformIds);
+        
+        // Remember which images the server has, so a save knows what was removed
+        savedImageIds = new HashMap<>();
+        for (ImageService.ImageData image : postData.images) {
+            if (image.imageId > 0) {
+                savedImageIds.put(image.url, image.imageId);
+            }
+        }
     }
     
     /**
@@ -997,16 +1053,14 @@ public class FormPanel extends JPanel {
      */
     private void loadPostRelatedData(PostService.PostData postData) {
         if (postData.postId > 0) {
-            final int postId = postData.postId;
-            
             // Set the post ID in the image uploader
-            imageUploader.setCurrentPostId(postId);
+            imageUploader.setCurrentPostId(postData.postId);
             
-            // Load images from API
-            loadImagesForPost(postId);
+            // Images and platforms arrive with the post, so no second fetch is needed
+            imageUploader.loadImagesFromData(postData.images);
             
-            // Load platforms for post
-            loadPlatformsForPost(postId);
+            platformSelector.clearSelections();
+            platformSelector.setSelectedPlatforms(postData.platformIds);
         } else {
             // For compatibility with older data format
             imageUploader.loadImagesFromUrls(postData.imagePaths);
@@ -1014,31 +1068,6 @@ public class FormPanel extends JPanel {
         }
     }
     
-    /**
-     * Load images for post
-     */
-    private void loadImagesForPost(int postId) {
-        ImageService.getImagesForPost(postId, imageResult -> {
-            if (imageResult.success && imageResult.images != null) {
-                imageUploader.loadImagesFromData(imageResult.images);
-            } else {
-                imageUploader.clearImages();
-            }
-        });
-    }
-    
-    /**
-     * Load platforms for post
-     */
-    private void loadPlatformsForPost(int postId) {
-        platformSelector.clearSelections();
-        
-        PostService.getPostPlatforms(postId, platformIds -> {
-            platformSelector.setSelectedPlatforms(platformIds);
-            currentPostData.platformIds = platformIds;
-        });
-    }
-    
     /**
      * Update UI visibility for loaded post
      */
@@ -1052,6 +1081,7 @@ public class FormPanel extends JPanel {
         
         generateButton.setText("Generate New Content");
         generateButton.setEnabled(true);
+        newVariantButton.setVisible(false);
         
         manualInputButton.setVisible(false);
         
@@ -1064,6 +1094,10 @@ public class FormPanel extends JPanel {
      */
     public void resetForm() {
         SwingUtilities.invokeLater(() -> {
+            // A post still loading must not fill the form after the reset
+            cancelPendingLoad();
+            setCursor(Cursor.getDefaultCursor());
+            
             // Clear form fields
             nameField.setText("");
             dodPicker.setDate(null);
@@ -1083,6 +1117,7 @@ public class FormPanel extends JPanel {
             deleteButton.setVisible(false);
             generateButton.setText("Generate Post");
             generateButton.setEnabled(true);
+            newVariantButton.setVisible(false);
             
             manualInputButton.setVisible(true);
             
@@ -1090,8 +1125,9 @@ public class FormPanel extends JPanel {
             currentPostData = new PostService.PostData();
             isGenerating = false;
             
-            // Reset platform tracking
+            // Reset platform and image tracking
             previousPlatformIds.clear();
+            savedImageIds.clear();
         });
     }
 }
\ No newline at end of file
@@ -2,21 +2,28 @@ package components.sections;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 
 import components.layout.WrapLayout;
+import lib.ImageIdIndex;
+import lib.ImageProbe;
 import lib.ImageService;
+import lib.PerceptualHash;
+import lib.ThumbnailService;
 
 public class ImageUploadPanel extends JPanel {
     private JPanel imagePreviewPanel;
     private JButton addImageButton;
     private Map<String, Component> imageComponents = new HashMap<>();
     private Map<String, Integer> imageIds = new HashMap<>(); // Map to track image IDs
+    private PerceptualHash.Index duplicateIndex = new PerceptualHash.Index(); // Hashes of shown images
+    private Map<String, CompletableFuture<?>> thumbnailLoads = new HashMap<>(); // Loads to cancel when a card goes
     private JLabel placeholderLabel;
     private int currentPostId = -1; // Track current post ID
 
@@ -88,13 +95,31 @@ public class ImageUploadPanel extends JPanel {
                 try {
                     // Validate URL by trying to create a URL object
                     new URL(url);
-                    addImage(url, sourceField.getText().trim());
-                    dialog.dispose();
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(dialog, 
                         "Invalid URL format. Please enter a valid URL.", 
                         "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+
+                // Check the link answers with an image before adding it
+                addButton.setEnabled(false);
+                addButton.setText("Checking...");
+                ImageProbe.probeAsync(url).thenAccept(verdict -> SwingUtilities.invokeLater(() -> {
+                    if (!dialog.isDisplayable()) {
+                        return;
+                    }
+                    addButton.setEnabled(true);
+                    addButton.setText("Add");
+                    if (verdict.ok) {
+                        addImage(url, sourceField.getText().trim());
+                        dialog.dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(dialog, 
+                            "This image can't be used: " + verdict.reason, 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
             } else {
                 JOptionPane.showMessageDialog(dialog, 
                     "Please enter an image URL.", 
@@ -140,26 +165,13 @@ public class ImageUploadPanel extends JPanel {
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createLineBorder(Color.GRAY));
 
-        try {
-            // Load and scale the image from URL
-            Image image = ImageIO.read(new URL(url));
-            if (image != null) {
-                Image scaled = image.getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-                JLabel imgLabel = new JLabel(new ImageIcon(scaled));
-                imgLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                card.add(imgLabel, BorderLayout.CENTER);
-            } else {
-                // If image couldn't be loaded
-                JLabel errorLabel = new JLabel("Image load error");
-                errorLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                card.add(errorLabel, BorderLayout.CENTER);
-            }
-        } catch (Exception e) {
-            // If there was an error loading the image
-            JLabel errorLabel = new JLabel("Image load error");
-            errorLabel.setHorizontalAlignment(SwingConstants.CENTER);
-            card.add(errorLabel, BorderLayout.CENTER);
-        }
+        // Placeholder until the thumbnail has been loaded in the background
+        JLabel imgLabel = new JLabel("Loading...");
+        imgLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        imgLabel.setPreferredSize(new Dimension(ThumbnailService.THUMBNAIL_SIZE, ThumbnailService.THUMBNAIL_SIZE));
+        card.add(imgLabel, BorderLayout.CENTER);
+        probeImage(url, card);
+        loadThumbnail(url, card, imgLabel);
 
         // URL label
         JLabel urlLabel = new JLabel("<html><div style='width:100px;text-align:center;'>" + url + "</div></html>");
@@ -221,6 +233,68 @@ public class ImageUploadPanel extends JPanel {
         imagePreviewPanel.repaint();
     }
 
+    // Load the thumbnail off the EDT and swap it into the card when ready
+    private void loadThumbnail(String url, Component card, JLabel imgLabel) {
+        CompletableFuture<BufferedImage> load = ThumbnailService.loadThumbnail(url);
+        thumbnailLoads.put(url, load);
+        load.whenComplete((thumbnail, error) -> {
+            // Hash before returning to the EDT; cheap on a thumbnail
+            long hash = error == null ? PerceptualHash.dHash(thumbnail) : 0;
+
+            SwingUtilities.invokeLater(() -> {
+                // Skip cards that were removed or replaced while loading
+                if (imageComponents.get(url) != card) {
+                    return;
+                }
+                thumbnailLoads.remove(url, load);
+
+                if (error == null) {
+                    imgLabel.setText(null);
+                    imgLabel.setIcon(new ImageIcon(thumbnail));
+                    collapseDuplicate(url, hash);
+                } else {
+                    // If the image couldn't be loaded
+                    imgLabel.setText("Image load error");
+                }
+            });
+        });
+    }
+
+    // Check the link alongside the thumbnail load and drop unsaved images that
+    // are dead or oversized, e.g. stale search results
+    private void probeImage(String url, Component card) {
+        ImageProbe.probeAsync(url).thenAccept(verdict -> {
+            if (verdict.ok) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (imageComponents.get(url) == card && !imageIds.containsKey(url)) {
+                    System.out.println("DEBUG - ImageUploadPanel dropping unusable image: " + url + " (" + verdict.reason + ")");
+                    removeImageFromUI(url);
+                }
+            });
+        });
+    }
+
+    // Drop an image that looks the same as one already shown, e.g. the same
+    // search result at another URL or size. Saved images are never dropped.
+    private void collapseDuplicate(String url, long hash) {
+        String original = duplicateIndex.add(url, hash);
+        if (original == null) {
+            return;
+        }
+
+        if (!imageIds.containsKey(url)) {
+            System.out.println("DEBUG - ImageUploadPanel dropping duplicate image: " + url + " (same as " + original + ")");
+            removeImageFromUI(url);
+        } else if (!imageIds.containsKey(original)) {
+            // Keep the saved copy instead of the unsaved one
+            System.out.println("DEBUG - ImageUploadPanel dropping duplicate image: " + original + " (same as " + url + ")");
+            removeImageFromUI(original);
+            duplicateIndex.add(url, hash);
+        }
+    }
+
     // Helper method to remove image from UI
     private void removeImageFromUI(String url) {
         Component card = imageComponents.get(url);
@@ -228,16 +302,35 @@ public class ImageUploadPanel extends JPanel {
             imagePreviewPanel.remove(card);
             imageComponents.remove(url);
             imageIds.remove(url);
+            duplicateIndex.remove(url);
+            cancelThumbnailLoad(url);
             if (imageComponents.isEmpty()) addPlaceholder();
             imagePreviewPanel.revalidate();
             imagePreviewPanel.repaint();
         }
     }
 
+    // Stop downloading and decoding a thumbnail that is no longer shown
+    private void cancelThumbnailLoad(String url) {
+        CompletableFuture<?> load = thumbnailLoads.remove(url);
+        if (load != null) {
+            load.cancel(true);
+        }
+    }
+
+    public void removeImage(String url) {
+        removeImageFromUI(url);
+    }
+
     public List<String> getImageUrls() {
         return new ArrayList<>(imageComponents.keySet());
     }
 
+    // IDs of the shown images that are known to be saved, by URL
+    public Map<String, Integer> getImageIds() {
+        return new HashMap<>(imageIds);
+    }
+
     // Updated to accept image data objects with IDs
     public void loadImagesFromData(List<ImageService.ImageData> images) {
         clearImages();
@@ -260,6 +353,7 @@ public class ImageUploadPanel extends JPanel {
         if (url != null && !url.isEmpty() && imageId > 0) {
             System.out.println("DEBUG - ImageUploadPanel associating URL: " + url + " with ID: " + imageId);
             imageIds.put(url, imageId);
+            ImageIdIndex.put(url, imageId);
         }
     }
 
@@ -277,9 +371,15 @@ public class ImageUploadPanel extends JPanel {
     }
 
     public void clearImages() {
+        // Abandon thumbnails of the previous images, e.g. when switching posts
+        for (CompletableFuture<?> load : thumbnailLoads.values()) {
+            load.cancel(true);
+        }
+        thumbnailLoads.clear();
         imagePreviewPanel.removeAll();
         imageComponents.clear();
         imageIds.clear();
+        duplicateIndex.clear();
         placeholderLabel = null;
         addPlaceholder();
         imagePreviewPanel.revalidate();
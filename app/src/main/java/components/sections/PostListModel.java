@@ -0,0 +1,268 @@
+package components.sections;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+import lib.PostService;
+
+/**
+ * Lazily loaded list model for the sidebar.
+ *
+ * Posts are fetched a page at a time by cursor. Only the first page is loaded
+ * up front; the next page is requested when the list asks for a row close to the
+ * end of what has been loaded, which with a fixed cell height only happens as
+ * the user scrolls down. Pages are fetched off the EDT and appended with a single
+ * list event per page.
+ *
+ * refresh() asks the server only for posts created, updated or deleted since
+ * the last sync marker and patches the loaded rows in place, in one EDT update,
+ * so saving a post does not clear the list or lose the scroll position. Without
+ * a marker it falls back to re-fetching the loaded range.
+ *
+ * start() first shows the posts cached on disk by the last session (PostCache)
+ * and then syncs them with the server in the background.
+ */
+public class PostListModel extends AbstractListModel<PostService.PostSummary> {
+    private static final int PAGE_SIZE = 100;
+    // Start fetching the next page when this many loaded rows remain below the viewport
+    private static final int PREFETCH_MARGIN = 20;
+
+    private final List<PostService.PostSummary> posts = new ArrayList<>();
+    private int nextCursor = 0;
+    private boolean loading = false;
+    private boolean failed = false;
+    // Server time of the last full load or sync, null until the first page arrives
+    private String syncMarker = null;
+    // Bumped on reload so pages requested before it are ignored
+    private int generation = 0;
+
+    @Override
+    public int getSize() {
+        return posts.size();
+    }
+
+    @Override
+    public PostService.PostSummary getElementAt(int index) {
+        if (index >= posts.size() - PREFETCH_MARGIN) {
+            loadNextPage();
+        }
+        return posts.get(index);
+    }
+
+    /**
+     * Whether more posts are available on the server
+     */
+    public boolean hasMore() {
+        return nextCursor >= 0;
+    }
+
+    /**
+     * Show the cached posts right away, then bring them up to date
+     */
+    public void start() {
+        final int requestGeneration = generation;
+
+        PostService.loadCachedPostsAsync().whenComplete((cached, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                if (error != null || cached == null) {
+                    reload();
+                    return;
+                }
+
+                System.out.println("DEBUG - PostListModel - Showing " + cached.items.size() + " cached posts");
+                applyRange(cached);
+                refresh();
+            }));
+    }
+
+    /**
+     * Drop everything and load the first page again
+     */
+    public void reload() {
+        generation++;
+        int oldSize = posts.size();
+        posts.clear();
+        nextCursor = 0;
+        loading = false;
+        failed = false;
+        syncMarker = null;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        loadNextPage();
+    }
+
+    /**
+     * Bring the loaded rows up to date with the server in the background
+     */
+    public void refresh() {
+        if (posts.isEmpty()) {
+            reload();
+            return;
+        }
+        if (syncMarker == null) {
+            refreshRange();
+            return;
+        }
+
+        generation++;
+        // Hold off paging while the sync is in flight; it patches the loaded range
+        loading = true;
+        failed = false;
+        final int requestGeneration = generation;
+
+        PostService.loadPostChangesAsync(syncMarker).whenComplete((changes, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+
+                if (error != null) {
+                    // Fall back to re-fetching what is loaded
+                    System.out.println("DEBUG - PostListModel - Failed to sync changes: " + error.getMessage());
+                    refreshRange();
+                    return;
+                }
+
+                // New posts past the loaded pages are left for paging to pick up
+                int lastLoadedId = hasMore() ? nextCursor : -1;
+                applyList(PostService.reconcile(posts, changes, lastLoadedId));
+                syncMarker = changes.serverTime;
+            }));
+    }
+
+    /**
+     * Re-fetch the loaded rows in the background and apply the differences
+     */
+    private void refreshRange() {
+        generation++;
+        // Hold off paging while the refresh is in flight; it replaces the loaded range
+        loading = true;
+        failed = false;
+        final int requestGeneration = generation;
+
+        PostService.loadPostRangeAsync(posts.size(), PAGE_SIZE).whenComplete((range, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+
+                if (error != null) {
+                    // Keep showing the old rows
+                    System.out.println("DEBUG - PostListModel - Failed to refresh posts: " + error.getMessage());
+                    return;
+                }
+
+                applyRange(range);
+            }));
+    }
+
+    /**
+     * Replace the loaded rows with a freshly fetched range
+     */
+    private void applyRange(PostService.PostPage range) {
+        nextCursor = range.nextCursor;
+        syncMarker = range.serverTime;
+        applyList(range.items);
+    }
+
+    /**
+     * Replace the loaded rows, firing events only for the part that changed.
+     *
+     * Both lists are ordered by post ID, so everything before the first
+     * difference and after the last one is unchanged. The middle section is
+     * reported as changed, added and/or removed: at most two list events.
+     */
+    private void applyList(List<PostService.PostSummary> updated) {
+        int oldSize = posts.size();
+        int newSize = updated.size();
+
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && sameEntry(posts.get(prefix), updated.get(prefix))) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && sameEntry(posts.get(oldSize - 1 - suffix), updated.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        int oldMiddle = oldSize - prefix - suffix;
+        int newMiddle = newSize - prefix - suffix;
+        if (oldMiddle == 0 && newMiddle == 0) {
+            return;
+        }
+
+        posts.clear();
+        posts.addAll(updated);
+
+        int changed = Math.min(oldMiddle, newMiddle);
+        if (changed > 0) {
+            fireContentsChanged(this, prefix, prefix + changed - 1);
+        }
+        if (newMiddle > oldMiddle) {
+            fireIntervalAdded(this, prefix + changed, prefix + newMiddle - 1);
+        } else if (oldMiddle > newMiddle) {
+            fireIntervalRemoved(this, prefix + changed, prefix + oldMiddle - 1);
+        }
+    }
+
+    private static boolean sameEntry(PostService.PostSummary a, PostService.PostSummary b) {
+        return a.postId == b.postId && a.name.equals(b.name);
+    }
+
+    /**
+     * Request the next page if there is one and none is already on its way
+     */
+    private void loadNextPage() {
+        if (loading || failed || !hasMore()) {
+            return;
+        }
+
+        loading = true;
+        final int requestGeneration = generation;
+
+        PostService.loadPostPageAsync(nextCursor, PAGE_SIZE).whenComplete((page, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+
+                if (error != null) {
+                    // Stop paging until the next reload instead of retrying on every repaint
+                    System.out.println("DEBUG - PostListModel - Failed to load posts: " + error.getMessage());
+                    failed = true;
+                    return;
+                }
+
+                appendPage(page);
+            }));
+    }
+
+    /**
+     * Append a loaded page with one intervalAdded event
+     */
+    private void appendPage(PostService.PostPage page) {
+        nextCursor = page.nextCursor;
+        if (syncMarker == null) {
+            syncMarker = page.serverTime;
+        }
+        if (page.items.isEmpty()) {
+            return;
+        }
+
+        int firstIndex = posts.size();
+        posts.addAll(page.items);
+        fireIntervalAdded(this, firstIndex, posts.size() - 1);
+    }
+}
@@ -0,0 +1,193 @@
+package components.sections;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletableFuture;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import lib.RosterImport;
+
+/**
+ * Dialog that runs a RosterImport and shows the status of every row.
+ *
+ * Closing the dialog or pressing Stop lets the rows in progress finish and
+ * leaves the rest for the next import of the same file.
+ */
+public class RosterImportDialog extends JDialog {
+    private final RosterImport rosterImport;
+    private final PostListModel postsModel;
+    private final RowTableModel tableModel;
+    private final JProgressBar progressBar;
+    private final JLabel summaryLabel;
+    private final JButton startButton;
+    private final JButton stopButton;
+    private CompletableFuture<Void> running;
+
+    public RosterImportDialog(Window owner, RosterImport rosterImport, PostListModel postsModel) {
+        super(owner, "Import Roster", ModalityType.MODELESS);
+        this.rosterImport = rosterImport;
+        this.postsModel = postsModel;
+        setSize(640, 480);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout(5, 5));
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+        // Row table
+        tableModel = new RowTableModel();
+        JTable table = new JTable(tableModel);
+        table.getColumnModel().getColumn(0).setMaxWidth(50);
+        table.getColumnModel().getColumn(2).setMaxWidth(100);
+        table.getColumnModel().getColumn(3).setPreferredWidth(220);
+
+        // Progress and buttons
+        progressBar = new JProgressBar(0, Math.max(1, rosterImport.getRows().size()));
+        progressBar.setStringPainted(true);
+        summaryLabel = new JLabel();
+
+        startButton = new JButton("Start");
+        startButton.addActionListener(e -> startImport());
+        stopButton = new JButton("Stop");
+        stopButton.setEnabled(false);
+        stopButton.addActionListener(e -> {
+            rosterImport.cancel();
+            stopButton.setEnabled(false);
+            summaryLabel.setText("Stopping after the rows in progress...");
+        });
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dispose());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(startButton);
+        buttonPanel.add(stopButton);
+        buttonPanel.add(closeButton);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout(5, 5));
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        bottomPanel.add(progressBar, BorderLayout.NORTH);
+        bottomPanel.add(summaryLabel, BorderLayout.CENTER);
+        bottomPanel.add(buttonPanel, BorderLayout.SOUTH);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        // Closing mid-import stops taking new rows; the progress log keeps what was saved
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                rosterImport.cancel();
+            }
+        });
+
+        updateProgress();
+    }
+
+    /**
+     * Run every row that isn't saved yet
+     */
+    private void startImport() {
+        startButton.setEnabled(false);
+        stopButton.setEnabled(true);
+
+        running = rosterImport.start(row -> SwingUtilities.invokeLater(() -> {
+            tableModel.fireTableRowsUpdated(row.index, row.index);
+            updateProgress();
+            if (row.status == RosterImport.Status.DONE) {
+                // Show the new post in the sidebar while the import goes on
+                postsModel.refresh();
+            }
+        }));
+        running.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            startButton.setText("Retry Failed");
+            startButton.setEnabled(true);
+            stopButton.setEnabled(false);
+            updateProgress();
+        }));
+    }
+
+    private void updateProgress() {
+        int total = rosterImport.getRows().size();
+        int done = 0;
+        int failed = 0;
+        int resumed = 0;
+        for (RosterImport.Row row : rosterImport.getRows()) {
+            if (row.status == RosterImport.Status.DONE) {
+                done++;
+                if (row.resumed) {
+                    resumed++;
+                }
+            } else if (row.status == RosterImport.Status.FAILED) {
+                failed++;
+            }
+        }
+
+        progressBar.setValue(done + failed);
+        progressBar.setString(done + " of " + total + " saved");
+        summaryLabel.setText(failed + " failed"
+                + (resumed > 0 ? ", " + resumed + " saved by an earlier import" : ""));
+    }
+
+    /**
+     * Table over the import's rows; the rows themselves are updated by the import
+     */
+    private class RowTableModel extends AbstractTableModel {
+        private final String[] columns = { "#", "Name", "Date of Death", "Status" };
+
+        @Override
+        public int getRowCount() {
+            return rosterImport.getRows().size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            RosterImport.Row row = rosterImport.getRows().get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return row.index + 1;
+                case 1:
+                    return row.name;
+                case 2:
+                    return row.dod;
+                default:
+                    return statusText(row);
+            }
+        }
+
+        private String statusText(RosterImport.Row row) {
+            switch (row.status) {
+                case GENERATING:
+                    return "Generating...";
+                case SAVING:
+                    return "Saving...";
+                case DONE:
+                    return "Saved (post " + row.postId + ")" + (row.resumed ? " earlier" : "");
+                case FAILED:
+                    return "Failed: " + row.error;
+                default:
+                    return "Pending";
+            }
+        }
+    }
+}
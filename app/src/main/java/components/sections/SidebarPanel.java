@@ -8,28 +8,41 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 import lib.ExportExcelService;
+import lib.PostPrefetcher;
+import lib.PostService;
+import lib.RosterImport;
 
 public class SidebarPanel extends JPanel {
-    private JList<String> previousPosts;
+    // How long the pointer has to rest on a row before its post is prefetched
+    private static final int HOVER_PREFETCH_DELAY_MS = 150;
+
+    private JList<PostService.PostSummary> previousPosts;
     private FormPanel formPanel;
+    private int hoveredIndex = -1;
+    private Timer hoverPrefetchTimer;
 
-    public SidebarPanel(DefaultListModel<String> postsModel, JButton exportExcelButton) {
+    public SidebarPanel(PostListModel postsModel, JButton exportExcelButton) {
         setLayout(new BorderLayout());
         setPreferredSize(new Dimension(225, 0));
         setBackground(new Color(45, 45, 60));
@@ -64,6 +77,10 @@ public class SidebarPanel extends JPanel {
             }
         });
 
+        // A prototype value fixes the cell width and height, so the list never has to
+        // render every row to measure it, and only asks the model for visible rows
+        previousPosts.setPrototypeCellValue(new PostService.PostSummary(-1, "Prototype Post Name"));
+
         previousPosts.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         previousPosts.addMouseListener(new MouseAdapter() {
             @Override
@@ -71,13 +88,20 @@ public class SidebarPanel extends JPanel {
                 if (e.getClickCount() == 1) {
                     int index = previousPosts.locationToIndex(e.getPoint());
                     if (index >= 0 && formPanel != null) {
-                        String selectedName = postsModel.getElementAt(index);
-                        formPanel.loadPostByName(selectedName);
+                        PostService.PostSummary selected = postsModel.getElementAt(index);
+                        if (selected.postId > 0) {
+                            formPanel.loadPostById(selected.postId);
+                        }
                     }
                 }
             }
         });
         
+        // Prefetch the hovered post once the pointer rests on it, so opening it is instant;
+        // passing over rows on the way elsewhere restarts the timer and loads nothing
+        hoverPrefetchTimer = new Timer(HOVER_PREFETCH_DELAY_MS, e -> prefetchRows(hoveredIndex, hoveredIndex));
+        hoverPrefetchTimer.setRepeats(false);
+
         previousPosts.addMouseMotionListener(new MouseAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
@@ -86,10 +110,37 @@ public class SidebarPanel extends JPanel {
                     previousPosts.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
                 } else {
                     previousPosts.setCursor(Cursor.getDefaultCursor());
+                    index = -1;
+                }
+
+                if (index != hoveredIndex) {
+                    hoveredIndex = index;
+                    if (index >= 0) {
+                        hoverPrefetchTimer.restart();
+                    } else {
+                        hoverPrefetchTimer.stop();
+                    }
                 }
             }
         });
 
+        previousPosts.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseExited(MouseEvent e) {
+                hoveredIndex = -1;
+                hoverPrefetchTimer.stop();
+            }
+        });
+
+        // Keyboard selection moves one row at a time, so prefetch straight away, together
+        // with the rows on either side since the next key press will likely land on one
+        previousPosts.addListSelectionListener(e -> {
+            int selected = previousPosts.getSelectedIndex();
+            if (!e.getValueIsAdjusting() && selected >= 0) {
+                prefetchRows(selected - 1, selected + 1);
+            }
+        });
+
 
         JScrollPane scrollPane = new JScrollPane(previousPosts);
         scrollPane.setBorder(null);
@@ -128,6 +179,12 @@ public class SidebarPanel extends JPanel {
 
 
 
+        JButton importRosterButton = new JButton("Import Roster");
+        importRosterButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        importRosterButton.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+        importRosterButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        importRosterButton.addActionListener(e -> showImportRosterDialog(postsModel));
+
         JPanel buttonPanel = new JPanel();
         buttonPanel.setOpaque(false);
         buttonPanel.setLayout(new BoxLayout(buttonPanel, BoxLayout.Y_AXIS));
@@ -135,6 +192,8 @@ public class SidebarPanel extends JPanel {
 
         buttonPanel.add(newPostBtn);
         buttonPanel.add(Box.createVerticalStrut(10));
+        buttonPanel.add(importRosterButton);
+        buttonPanel.add(Box.createVerticalStrut(10));
         buttonPanel.add(exportExcelButton);
 
         // Add to layout
@@ -143,6 +202,44 @@ public class SidebarPanel extends JPanel {
         add(buttonPanel, BorderLayout.SOUTH);
     }
 
+    /**
+     * Pick a roster CSV and open the import dialog for it
+     */
+    private void showImportRosterDialog(PostListModel postsModel) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Roster (CSV: name, date of death)");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        try {
+            RosterImport rosterImport = new RosterImport(fileChooser.getSelectedFile().toPath());
+            if (rosterImport.getRows().isEmpty()) {
+                JOptionPane.showMessageDialog(this, "The file has no rows to import.",
+                    "Import Roster", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            new RosterImportDialog(SwingUtilities.getWindowAncestor(this), rosterImport, postsModel).setVisible(true);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Could not read the roster: " + ex.getMessage(),
+                "Import Roster", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void prefetchRows(int first, int last) {
+        List<Integer> postIds = new ArrayList<>();
+        for (int index = Math.max(0, first); index <= last && index < previousPosts.getModel().getSize(); index++) {
+            PostService.PostSummary post = previousPosts.getModel().getElementAt(index);
+            if (post.postId > 0) {
+                postIds.add(post.postId);
+            }
+        }
+        if (!postIds.isEmpty()) {
+            PostPrefetcher.prefetch(postIds);
+        }
+    }
+
     public void setFormPanel(FormPanel panel) {
         this.formPanel = panel;
     }
@@ -0,0 +1,245 @@
+package lib;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Shared HTTP transport used by every service in this package.
+ *
+ * All backend traffic goes through a single pooled HttpClient, so connections are
+ * kept alive and reused between calls instead of paying a new TCP handshake per
+ * request. HTTP/2 is negotiated when the backend supports it, otherwise the client
+ * falls back to HTTP/1.1 on the same pool.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.api.baseUrl          - backend base URL (default http://localhost:8000/api)
+ *   dimf.http.connectTimeoutMs - connect timeout in milliseconds (default 10000)
+ *   dimf.http.readTimeoutMs    - time to wait for a response in milliseconds (default 60000)
+ *   dimf.http.version          - HTTP_2 or HTTP_1_1 (default HTTP_2)
+ *   dimf.http.maxPerEndpoint   - max concurrent requests to one endpoint (default 8)
+ *
+ * Requests to the same endpoint (method plus path, with numeric IDs folded
+ * together so /posts/1/images/ and /posts/2/images/ count as one) are limited to
+ * dimf.http.maxPerEndpoint at a time. Callers over the limit wait their turn, so a
+ * burst of cheap virtual threads does not turn into a burst against the backend.
+ * Streamed responses (sendForStream, sendForLines) hold their permit until the
+ * caller closes the body, so they must always be closed.
+ */
+public class ApiClient {
+    private static final String API_BASE_URL = System.getProperty("dimf.api.baseUrl", "http://localhost:8000/api");
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMillis(Long.getLong("dimf.http.connectTimeoutMs", 10000));
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(Long.getLong("dimf.http.readTimeoutMs", 60000));
+    private static final int MAX_PER_ENDPOINT = Integer.getInteger("dimf.http.maxPerEndpoint", 8);
+
+    // Path segments that are numeric IDs, folded together in endpoint keys
+    private static final Pattern NUMERIC_ID = Pattern.compile("/\\d+(?=/|$)");
+
+    // One permit pool per endpoint, created on first use
+    private static final Map<String, Semaphore> endpointLimits = new ConcurrentHashMap<>();
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.valueOf(System.getProperty("dimf.http.version", "HTTP_2")))
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    /**
+     * Response from the backend with the body already read
+     */
+    public static class Response {
+        public final int statusCode;
+        public final String body;
+
+        public Response(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body != null ? body : "";
+        }
+
+        public boolean isSuccess() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+    }
+
+    /**
+     * Get the API base URL
+     * @return The API base URL
+     */
+    public static String getApiBaseUrl() {
+        return API_BASE_URL;
+    }
+
+    /**
+     * Get the shared HTTP client
+     * @return The pooled client used for all backend calls
+     */
+    public static HttpClient getHttpClient() {
+        return CLIENT;
+    }
+
+    public static Response get(String path) throws IOException, InterruptedException {
+        return send("GET", path, null, READ_TIMEOUT);
+    }
+
+    public static Response post(String path, String jsonBody) throws IOException, InterruptedException {
+        return send("POST", path, jsonBody, READ_TIMEOUT);
+    }
+
+    public static Response put(String path, String jsonBody) throws IOException, InterruptedException {
+        return send("PUT", path, jsonBody, READ_TIMEOUT);
+    }
+
+    public static Response delete(String path) throws IOException, InterruptedException {
+        return send("DELETE", path, null, READ_TIMEOUT);
+    }
+
+    public static Response delete(String path, String jsonBody) throws IOException, InterruptedException {
+        return send("DELETE", path, jsonBody, READ_TIMEOUT);
+    }
+
+    /**
+     * Send a request to the backend and read the whole body as a string
+     * @param method HTTP method
+     * @param path Path relative to the API base URL
+     * @param jsonBody JSON request body, or null for no body
+     * @param timeout How long to wait for the response
+     * @return The response status and body
+     */
+    public static Response send(String method, String path, String jsonBody, Duration timeout)
+            throws IOException, InterruptedException {
+        HttpRequest request = newRequest(method, path, jsonBody, timeout);
+        Semaphore limit = endpointLimit(method, path);
+        limit.acquire();
+        try {
+            HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            return new Response(response.statusCode(), response.body());
+        } finally {
+            limit.release();
+        }
+    }
+
+    /**
+     * Send a request and return the raw body stream, for downloads
+     * @param method HTTP method
+     * @param path Path relative to the API base URL
+     * @return The response with an unread body stream; close it when done
+     */
+    public static HttpResponse<InputStream> sendForStream(String method, String path)
+            throws IOException, InterruptedException {
+        HttpRequest request = newRequest(method, path, null, READ_TIMEOUT);
+        Semaphore limit = endpointLimit(method, path);
+        limit.acquire();
+        Runnable release = releaseOnce(limit);
+        try {
+            // The permit is held until the caller closes the body stream
+            return CLIENT.send(request, info -> HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodyHandlers.ofInputStream().apply(info),
+                    body -> new FilterInputStream(body) {
+                        @Override
+                        public void close() throws IOException {
+                            try {
+                                super.close();
+                            } finally {
+                                release.run();
+                            }
+                        }
+                    }));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Send a request and return the body as lines read while they arrive, for streamed responses
+     * @param method HTTP method
+     * @param path Path relative to the API base URL
+     * @param jsonBody JSON request body, or null for no body
+     * @param timeout How long to wait for the response to start
+     * @return The response with a lazily read stream of body lines; close it when done
+     */
+    public static HttpResponse<Stream<String>> sendForLines(String method, String path, String jsonBody, Duration timeout)
+            throws IOException, InterruptedException {
+        HttpRequest request = newRequest(method, path, jsonBody, timeout);
+        Semaphore limit = endpointLimit(method, path);
+        limit.acquire();
+        Runnable release = releaseOnce(limit);
+        try {
+            // The permit is held until the caller closes the stream of lines
+            return CLIENT.send(request, info -> HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodyHandlers.ofLines().apply(info),
+                    lines -> lines.onClose(release)));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Wrap a permit release so that closing a body twice gives back only one permit
+     */
+    private static Runnable releaseOnce(Semaphore limit) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        };
+    }
+
+    /**
+     * Get the concurrency limit for an endpoint
+     * @param method HTTP method
+     * @param path Path relative to the API base URL
+     * @return The semaphore shared by every request to that endpoint
+     */
+    private static Semaphore endpointLimit(String method, String path) {
+        return endpointLimits.computeIfAbsent(endpointKey(method, path),
+                key -> new Semaphore(MAX_PER_ENDPOINT, true));
+    }
+
+    /**
+     * Build the endpoint key: method plus path without query string, IDs replaced by {id}
+     */
+    private static String endpointKey(String method, String path) {
+        int query = path.indexOf('?');
+        String route = query >= 0 ? path.substring(0, query) : path;
+        return method + " " + NUMERIC_ID.matcher(route).replaceAll("/{id}");
+    }
+
+    /**
+     * Build a request with the common headers (JSON accept/content type and auth token)
+     */
+    private static HttpRequest newRequest(String method, String path, String jsonBody, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(API_BASE_URL + path))
+                .timeout(timeout)
+                .header("Accept", "application/json");
+
+        // Add auth token from UserService
+        String token = UserService.getCurrentToken();
+        if (token != null && !token.isEmpty()) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+
+        if (jsonBody != null) {
+            builder.header("Content-Type", "application/json");
+            builder.method(method, HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8));
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        return builder.build();
+    }
+}
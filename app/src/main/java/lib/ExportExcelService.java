@@ -4,8 +4,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import javax.swing.JOptionPane;
@@ -16,7 +17,7 @@ import javax.swing.JOptionPane;
  */
 public class ExportExcelService {
     
-    private static final String API_URL = "http://localhost:8000/api/export/excel";
+    private static final String EXPORT_PATH = "/export/excel";
     
     /**
      * Exports posts data to Excel format at the specified path
@@ -28,63 +29,60 @@ public class ExportExcelService {
         try {
             System.out.println("Starting Excel export to: " + outputPath);
             
-            // Create URL object
-            URL url = new URL(API_URL);
+            // Request the export through the shared client
+            HttpResponse<InputStream> response = ApiClient.sendForStream("GET", EXPORT_PATH);
             
-            // Open connection
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
-            
-            // Check if the request was successful
-            int status = connection.getResponseCode();
-            if (status == 200) {
-                // Create temp file to store the downloaded content
-                File tempFile = File.createTempFile("excel-export-", ".xlsx");
-                
-                // Download the file
-                try (InputStream in = connection.getInputStream();
-                     FileOutputStream out = new FileOutputStream(tempFile)) {
-                    
-                    // Buffer for reading data
-                    byte[] buffer = new byte[4096];
-                    int bytesRead;
+            // The body holds the endpoint's permit until it is closed, so every path closes it
+            String errorMessage = null;
+            try (InputStream in = response.body()) {
+                // Check if the request was successful
+                int status = response.statusCode();
+                if (status == 200) {
+                    // Create temp file to store the downloaded content
+                    File tempFile = File.createTempFile("excel-export-", ".xlsx");
                     
-                    // Read from input stream and write to output stream
-                    while ((bytesRead = in.read(buffer)) != -1) {
-                        out.write(buffer, 0, bytesRead);
+                    // Download the file
+                    try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                        
+                        // Buffer for reading data
+                        byte[] buffer = new byte[4096];
+                        int bytesRead;
+                        
+                        // Read from input stream and write to output stream
+                        while ((bytesRead = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, bytesRead);
+                        }
+                        
+                        // Ensure all data is written
+                        out.flush();
                     }
                     
-                    // Ensure all data is written
-                    out.flush();
+                    // Move temp file to final destination
+                    File outputFile = new File(outputPath);
+                    Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    // Handle error response
+                    errorMessage = new String(in.readAllBytes());
+                    System.err.println("Export failed with status " + status + ": " + errorMessage);
                 }
-                
-                // Move temp file to final destination
-                File outputFile = new File(outputPath);
-                Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                
+            }
+            
+            if (errorMessage == null) {
                 System.out.println("Export successful: " + outputPath);
                 JOptionPane.showMessageDialog(null, 
                                              "Export successful: " + outputPath, 
                                              "Export Completed", 
                                              JOptionPane.INFORMATION_MESSAGE);
             } else {
-                // Handle error response
-                try (InputStream errorStream = connection.getErrorStream()) {
-                    String errorMessage = new String(errorStream.readAllBytes());
-                    System.err.println("Export failed with status " + status + ": " + errorMessage);
-                    JOptionPane.showMessageDialog(null, 
-                                                 "Export failed: " + errorMessage, 
-                                                 "Export Error", 
-                                                 JOptionPane.ERROR_MESSAGE);
-                }
+                JOptionPane.showMessageDialog(null, 
+                                             "Export failed: " + errorMessage, 
+                                             "Export Error", 
+                                             JOptionPane.ERROR_MESSAGE);
+            }
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
-            
-            // Close the connection
-            connection.disconnect();
-            
-        } catch (IOException e) {
             String errorMessage = "Export failed: " + e.getMessage();
             System.err.println(errorMessage);
             e.printStackTrace();
@@ -105,52 +103,51 @@ public class ExportExcelService {
         try {
             System.out.println("Starting Excel export with custom filename to: " + outputPath);
             
-            // Create URL object with query parameter
-            URL url = new URL(API_URL + "?filename=" + customFilename);
+            // Request the export with query parameter
+            HttpResponse<InputStream> response = ApiClient.sendForStream("GET",
+                    EXPORT_PATH + "?filename=" + URLEncoder.encode(customFilename, StandardCharsets.UTF_8));
             
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
-            
-            int status = connection.getResponseCode();
-            if (status == 200) {
-                File tempFile = File.createTempFile("excel-export-", ".xlsx");
-                
-                try (InputStream in = connection.getInputStream();
-                     FileOutputStream out = new FileOutputStream(tempFile)) {
-                    byte[] buffer = new byte[4096];
-                    int bytesRead;
+            String errorMessage = null;
+            try (InputStream in = response.body()) {
+                int status = response.statusCode();
+                if (status == 200) {
+                    File tempFile = File.createTempFile("excel-export-", ".xlsx");
                     
-                    while ((bytesRead = in.read(buffer)) != -1) {
-                        out.write(buffer, 0, bytesRead);
+                    try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                        byte[] buffer = new byte[4096];
+                        int bytesRead;
+                        
+                        while ((bytesRead = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, bytesRead);
+                        }
+                        
+                        out.flush();
                     }
                     
-                    out.flush();
+                    File outputFile = new File(outputPath);
+                    Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    errorMessage = new String(in.readAllBytes());
+                    System.err.println("Export failed with status " + status + ": " + errorMessage);
                 }
-                
-                File outputFile = new File(outputPath);
-                Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                
+            }
+            
+            if (errorMessage == null) {
                 System.out.println("Export successful: " + outputPath);
                 JOptionPane.showMessageDialog(null, 
                                              "Export successful: " + outputPath, 
                                              "Export Completed", 
                                              JOptionPane.INFORMATION_MESSAGE);
             } else {
-                try (InputStream errorStream = connection.getErrorStream()) {
-                    String errorMessage = new String(errorStream.readAllBytes());
-                    System.err.println("Export failed with status " + status + ": " + errorMessage);
-                    JOptionPane.showMessageDialog(null, 
-                                                 "Export failed: " + errorMessage, 
-                                                 "Export Error", 
-                                                 JOptionPane.ERROR_MESSAGE);
-                }
+                JOptionPane.showMessageDialog(null, 
+                                             "Export failed: " + errorMessage, 
+                                             "Export Error", 
+                                             JOptionPane.ERROR_MESSAGE);
+            }
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
-            
-            connection.disconnect();
-            
-        } catch (IOException e) {
             String errorMessage = "Export failed: " + e.getMessage();
             System.err.println(errorMessage);
             e.printStackTrace();
@@ -160,4 +157,4 @@ public class ExportExcelService {
                                          JOptionPane.ERROR_MESSAGE);
         }
     }
-}
\ No newline at end of file
+}
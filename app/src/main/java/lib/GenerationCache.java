@@ -0,0 +1,291 @@
+package lib;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Cache of search summaries and generated drafts, so generating the same
+ * veteran twice doesn't pay for the search and the LLM call again.
+ *
+ * Entries are keyed by the normalized name and date of death: case and runs of
+ * whitespace in the name don't matter. An entry holds the search result and the
+ * latest draft written from it. Asking for a new variant reuses the cached
+ * search and only replaces the draft.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.generation.entries   - veterans kept (default 200)
+ *   dimf.generation.ttlHours  - how long a search result is reused (default 72)
+ *   dimf.generation.persist   - keep the cache across sessions (default true)
+ * The persisted cache lives in dimf.cache.dir next to the post cache. Changes
+ * are written a couple of seconds later on a service thread, coalesced into
+ * one write, and flushed when the JVM exits. Cache failures are logged and
+ * never fail a generation.
+ */
+public class GenerationCache {
+    private static final int MAX_ENTRIES = Integer.getInteger("dimf.generation.entries", 200);
+    private static final long TTL_MS = Long.getLong("dimf.generation.ttlHours", 72) * 60 * 60 * 1000;
+    private static final boolean PERSIST = Boolean.parseBoolean(System.getProperty("dimf.generation.persist", "true"));
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("dimf.cache.dir",
+            System.getProperty("user.home") + "/.dimf-autoposter")).resolve("generation-cache.json");
+
+    /**
+     * What is cached for one veteran
+     */
+    public static class Entry {
+        public String query;
+        public String summary;
+        public String draft;   // null until a draft has been generated from the summary
+        long searchedAt;
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - searchedAt < TTL_MS;
+        }
+    }
+
+    private static final long SAVE_DELAY_MS = 2000;
+
+    // Guards the entries. Not a monitor: callers run on virtual threads, which a
+    // monitor would pin while they wait
+    private static final ReentrantLock lock = new ReentrantLock();
+    // Serializes writes of the cache file
+    private static final ReentrantLock fileLock = new ReentrantLock();
+
+    // Access ordered, so iteration starts at the least recently used veteran
+    private static final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static boolean loaded = false;
+    private static boolean saveScheduled = false;
+
+    /**
+     * Get the cached search result for a veteran
+     * @param name Name
+     * @param dod Date of death string
+     * @return The entry, or null if nothing fresh is cached
+     */
+    public static Entry get(String name, String dod) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            String key = key(name, dod);
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isFresh()) {
+                entries.remove(key);
+                scheduleSave();
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the cached draft for a veteran
+     * @return The draft, or null if none is cached
+     */
+    public static String getDraft(String name, String dod) {
+        lock.lock();
+        try {
+            Entry entry = get(name, dod);
+            return entry != null ? entry.draft : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record a search result; any draft written from an older search is dropped
+     */
+    public static void putSearch(String name, String dod, String query, String summary) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            Entry entry = new Entry();
+            entry.query = query;
+            entry.summary = summary;
+            entry.searchedAt = System.currentTimeMillis();
+            entries.put(key(name, dod), entry);
+            evict();
+            scheduleSave();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record a draft generated from the cached search result
+     */
+    public static void putDraft(String name, String dod, String draft) {
+        lock.lock();
+        try {
+            Entry entry = get(name, dod);
+            if (entry == null) {
+                // The search expired while the draft was being written; nothing to attach it to
+                return;
+            }
+            entry.draft = draft;
+            scheduleSave();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget a veteran, e.g. when the search result turned out to be wrong
+     */
+    public static void invalidate(String name, String dod) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            if (entries.remove(key(name, dod)) != null) {
+                scheduleSave();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cache key: lower-case name with whitespace collapsed, and the trimmed date
+     */
+    static String key(String name, String dod) {
+        String normalizedName = name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        String normalizedDod = dod == null ? "" : dod.trim();
+        return normalizedName + "|" + normalizedDod;
+    }
+
+    private static void evict() {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (entries.size() > MAX_ENTRIES && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Read the persisted cache on first use
+     */
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!PERSIST) {
+            return;
+        }
+        // Don't lose changes still waiting for their delayed write
+        Runtime.getRuntime().addShutdownHook(new Thread(GenerationCache::writeSnapshot, "dimf-generation-cache"));
+        if (!Files.exists(CACHE_FILE)) {
+            return;
+        }
+
+        try {
+            JsonReader reader = new JsonReader(Files.readString(CACHE_FILE, StandardCharsets.UTF_8));
+            reader.beginObject();
+            if (reader.findField("entries")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String key = null;
+                    Entry entry = new Entry();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "key" -> key = reader.nextString();
+                            case "query" -> entry.query = reader.nextString();
+                            case "summary" -> entry.summary = reader.nextString();
+                            case "draft" -> entry.draft = reader.nextStringOrNull();
+                            case "searchedAt" -> entry.searchedAt = reader.nextLong();
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    if (key != null && entry.summary != null && entry.isFresh()) {
+                        entries.put(key, entry);
+                    }
+                }
+                reader.endArray();
+            }
+            evict();
+            System.out.println("DEBUG - GenerationCache - Loaded " + entries.size() + " entries from " + CACHE_FILE);
+        } catch (Exception e) {
+            System.out.println("DEBUG - GenerationCache - Failed to read cache: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Write the cache a little later on a service thread, so a burst of changes
+     * (e.g. a roster import) costs one write and callers never wait on the disk.
+     * Called with the lock held.
+     */
+    private static void scheduleSave() {
+        if (!PERSIST || saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        ServiceExecutor.runAsync(() -> {
+            try {
+                Thread.sleep(SAVE_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writeSnapshot();
+        });
+    }
+
+    /**
+     * Write the whole cache to disk if it changed, replacing the previous file atomically.
+     * The entries are copied under the lock and written outside it.
+     */
+    private static void writeSnapshot() {
+        // Held across the snapshot and the write, so snapshots reach the disk in order
+        fileLock.lock();
+        try {
+            JSONArray array = new JSONArray();
+            lock.lock();
+            try {
+                if (!saveScheduled) {
+                    return;
+                }
+                saveScheduled = false;
+                for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                    Entry entry = item.getValue();
+                    JSONObject record = new JSONObject()
+                            .put("key", item.getKey())
+                            .put("query", entry.query)
+                            .put("summary", entry.summary)
+                            .put("searchedAt", entry.searchedAt);
+                    if (entry.draft != null) {
+                        record.put("draft", entry.draft);
+                    }
+                    array.put(record);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            Files.createDirectories(CACHE_FILE.getParent());
+            Path tempFile = CACHE_FILE.resolveSibling(CACHE_FILE.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                out.write(new JSONObject().put("entries", array).toString());
+            }
+            Files.move(tempFile, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("DEBUG - GenerationCache - Failed to write cache: " + e.getMessage());
+        } finally {
+            fileLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client-side index from image URL to ImageID.
+ *
+ * Every response that pairs a URL with its ID (post bundles, post image lists,
+ * image saves, bulk lookups) is recorded here, so an image the app has seen
+ * before never needs a GET /images/find round trip. Unknown URLs are resolved
+ * together with one POST /images/find/batch call.
+ *
+ * Only hits are stored. An ID can go stale when an image's last post link is
+ * removed, so callers that write with an indexed ID (the batch save endpoint)
+ * have it checked on the server.
+ */
+public class ImageIdIndex {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Get the indexed ID for a URL without touching the network
+     * @param url Image URL
+     * @return The image ID, or null if the URL is not indexed
+     */
+    public static Integer get(String url) {
+        return url != null ? ids.get(url) : null;
+    }
+
+    /**
+     * Record a URL's image ID
+     * @param url Image URL
+     * @param imageId Image ID; ignored unless positive
+     */
+    public static void put(String url, int imageId) {
+        if (url != null && !url.isEmpty() && imageId > 0) {
+            ids.put(url, imageId);
+        }
+    }
+
+    /**
+     * Record the IDs of loaded images
+     * @param images Images from a post bundle or image list
+     */
+    public static void putAll(List<ImageService.ImageData> images) {
+        if (images == null) {
+            return;
+        }
+        for (ImageService.ImageData image : images) {
+            put(image.url, image.imageId);
+        }
+    }
+
+    /**
+     * Forget an image that may no longer exist on the server
+     * @param imageId Image ID
+     */
+    public static void removeId(int imageId) {
+        ids.values().removeIf(id -> id == imageId);
+    }
+
+    /**
+     * Resolve many URLs to image IDs, looking up only the ones not indexed yet
+     * @param urls Image URLs
+     * @return Future with the IDs of the URLs that have an image; unknown URLs are left out
+     */
+    public static CompletableFuture<Map<String, Integer>> resolveAsync(Collection<String> urls) {
+        Map<String, Integer> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String url : new LinkedHashSet<>(urls)) {
+            Integer imageId = get(url);
+            if (imageId != null) {
+                resolved.put(url, imageId);
+            } else if (url != null && !url.isEmpty()) {
+                missing.add(url);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(resolved);
+        }
+
+        System.out.println("DEBUG - ImageIdIndex - " + resolved.size() + " URLs indexed, looking up " + missing.size());
+        return ImageService.findImageIdsAsync(missing).thenApply(found -> {
+            resolved.putAll(found);
+            return resolved;
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package lib;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks that an image URL is worth loading before anything downloads it.
+ *
+ * A probe sends a HEAD request, or a one-byte Range GET for servers that do
+ * not answer HEAD, and looks only at the status and headers. A URL is only
+ * rejected on definite evidence: a 4xx status, a content type that is not an
+ * image, or a size over the limit. Rejections and acceptances are cached per
+ * URL for a while, so a dead link found once is rejected instantly on the next
+ * look and ThumbnailService skips it.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.imageProbe.timeoutMs   - time allowed for a probe (default 3000)
+ *   dimf.imageProbe.maxBytes    - largest image accepted (default 20 MB)
+ *   dimf.imageProbe.ttlSeconds  - how long a verdict is reused (default 1800)
+ * A probe that times out or fails with a network error, or gets a server
+ * error, proves nothing: its verdict is "unknown", which lets the image load
+ * go ahead and is not cached, so a slow host never loses its images.
+ */
+public class ImageProbe {
+    private static final Duration TIMEOUT = Duration.ofMillis(Long.getLong("dimf.imageProbe.timeoutMs", 3000));
+    private static final long MAX_BYTES = Long.getLong("dimf.imageProbe.maxBytes", 20L * 1024 * 1024);
+    private static final long TTL_MS = Long.getLong("dimf.imageProbe.ttlSeconds", 1800) * 1000;
+    private static final int MAX_CACHED = 2000;
+
+    /**
+     * Result of probing one URL
+     */
+    public static class Verdict {
+        public boolean ok;
+        public boolean unknown;      // the probe failed, so ok only means "not rejected"
+        public String reason;        // why the URL was rejected or couldn't be checked
+        public String contentType;
+        public long contentLength = -1;
+        long expiresAt;
+
+        static Verdict accept(String contentType, long contentLength) {
+            Verdict verdict = new Verdict();
+            verdict.ok = true;
+            verdict.contentType = contentType;
+            verdict.contentLength = contentLength;
+            return verdict;
+        }
+
+        static Verdict unknown(String reason) {
+            Verdict verdict = new Verdict();
+            verdict.ok = true;
+            verdict.unknown = true;
+            verdict.reason = reason;
+            return verdict;
+        }
+
+        static Verdict reject(String reason) {
+            Verdict verdict = new Verdict();
+            verdict.ok = false;
+            verdict.reason = reason;
+            return verdict;
+        }
+    }
+
+    private static final Map<String, Verdict> verdicts = new ConcurrentHashMap<>();
+    // Probes in progress, so the same URL is only probed once at a time
+    private static final Map<String, CompletableFuture<Verdict>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Get a cached verdict without probing
+     * @param url Image URL
+     * @return The verdict, or null if the URL has not been probed recently
+     */
+    public static Verdict getCached(String url) {
+        Verdict verdict = verdicts.get(url);
+        if (verdict != null && verdict.expiresAt < System.currentTimeMillis()) {
+            verdicts.remove(url, verdict);
+            return null;
+        }
+        return verdict;
+    }
+
+    /**
+     * Probe an image URL, reusing a recent verdict when there is one
+     * @param url Image URL
+     * @return Future with the verdict; never fails
+     */
+    public static CompletableFuture<Verdict> probeAsync(String url) {
+        Verdict cached = getCached(url);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Verdict> future = new CompletableFuture<>();
+        CompletableFuture<Verdict> existing = inFlight.putIfAbsent(url, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        ServiceExecutor.runAsync(() -> {
+            Verdict verdict;
+            try {
+                verdict = probe(url);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                verdict = Verdict.unknown("Interrupted");
+            } catch (Exception e) {
+                // Timeouts, DNS and TLS failures say nothing about the image itself
+                verdict = Verdict.unknown(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+
+            if (verdict.unknown) {
+                System.out.println("DEBUG - ImageProbe - Could not check " + url + ": " + verdict.reason);
+            } else {
+                if (!verdict.ok) {
+                    System.out.println("DEBUG - ImageProbe - Rejected " + url + ": " + verdict.reason);
+                }
+                remember(url, verdict, TTL_MS);
+            }
+            inFlight.remove(url, future);
+            future.complete(verdict);
+        });
+        return future;
+    }
+
+    /**
+     * Probe one URL: HEAD first, then a one-byte Range GET if HEAD is not supported
+     */
+    private static Verdict probe(String url) throws Exception {
+        URI uri = URI.create(url);
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            // Local files and other schemes are cheap to try directly
+            return Verdict.accept(null, -1);
+        }
+
+        HttpResponse<Void> response = send(HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build());
+
+        int status = response.statusCode();
+        if (status == 403 || status == 405 || status == 501) {
+            // Some image hosts refuse HEAD; ask for the first byte instead
+            response = send(HttpRequest.newBuilder(uri)
+                    .timeout(TIMEOUT)
+                    .header("Range", "bytes=0-0")
+                    .GET()
+                    .build());
+            status = response.statusCode();
+        }
+
+        if (status >= 400 && status < 500) {
+            return Verdict.reject("HTTP " + status);
+        }
+        if (status < 200 || status >= 300) {
+            // A server error may well be temporary
+            return Verdict.unknown("HTTP " + status);
+        }
+
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (contentType != null && !contentType.toLowerCase().startsWith("image/")) {
+            return Verdict.reject("Not an image (" + contentType + ")");
+        }
+
+        long contentLength = contentLength(response);
+        if (contentLength > MAX_BYTES) {
+            return Verdict.reject("Image too large (" + (contentLength / (1024 * 1024)) + " MB)");
+        }
+        return Verdict.accept(contentType, contentLength);
+    }
+
+    private static HttpResponse<Void> send(HttpRequest request) throws Exception {
+        return ApiClient.getHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Full size of the image: the total from Content-Range for a range response,
+     * otherwise Content-Length. -1 if the server doesn't say.
+     */
+    private static long contentLength(HttpResponse<Void> response) {
+        if (response.statusCode() == 206) {
+            String range = response.headers().firstValue("Content-Range").orElse("");
+            int slash = range.lastIndexOf('/');
+            if (slash >= 0) {
+                try {
+                    return Long.parseLong(range.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+        OptionalLong length = response.headers().firstValueAsLong("Content-Length");
+        return length.orElse(-1);
+    }
+
+    private static void remember(String url, Verdict verdict, long ttl) {
+        verdict.expiresAt = System.currentTimeMillis() + ttl;
+        if (verdicts.size() >= MAX_CACHED) {
+            long now = System.currentTimeMillis();
+            verdicts.values().removeIf(v -> v.expiresAt < now);
+            if (verdicts.size() >= MAX_CACHED) {
+                verdicts.clear();
+            }
+        }
+        verdicts.put(url, verdict);
+    }
+}
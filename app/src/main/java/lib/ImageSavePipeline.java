@@ -0,0 +1,302 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Saves a post's images through the batch endpoint (POST /posts/images/batch).
+ *
+ * Images are sent in batches that add and link several images per request,
+ * with at most a fixed number of batches in flight, instead of one add and one
+ * link request per image all at once. Images that fail are retried with a
+ * short backoff, and every image ends up with its own result so partial
+ * failures can be reported precisely. The IDs of new images the server
+ * already has are looked up with one bulk request (ImageIdIndex) before
+ * batching, so it can skip the URL lookups. New images that look the same as
+ * another image of the post (PerceptualHash) are left out rather than stored
+ * and linked a second time.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.images.batchSize      - images per request (default 10)
+ *   dimf.images.maxConcurrent  - batches in flight at once (default 2)
+ *   dimf.images.maxAttempts    - attempts per image before giving up (default 3)
+ */
+public class ImageSavePipeline {
+    private static final int BATCH_SIZE = Integer.getInteger("dimf.images.batchSize", 10);
+    private static final int MAX_CONCURRENT = Integer.getInteger("dimf.images.maxConcurrent", 2);
+    private static final int MAX_ATTEMPTS = Integer.getInteger("dimf.images.maxAttempts", 3);
+    private static final long RETRY_DELAY_MS = 500;
+
+    /**
+     * Outcome for one image
+     */
+    public static class ImageSaveResult {
+        public String url;          // null for removals
+        public int imageId = -1;
+        public String status;       // linked, already_linked, unlinked, duplicate or failed
+        public String error;
+        public int attempts;
+        public String duplicateOf;  // for duplicates, the URL of the image that was kept
+
+        public boolean isSuccess() {
+            return !"failed".equals(status);
+        }
+    }
+
+    /**
+     * Outcome for a whole save
+     */
+    public static class SaveReport {
+        public List<ImageSaveResult> results = new ArrayList<>();
+
+        public List<ImageSaveResult> getFailures() {
+            List<ImageSaveResult> failures = new ArrayList<>();
+            for (ImageSaveResult result : results) {
+                if (!result.isSuccess()) {
+                    failures.add(result);
+                }
+            }
+            return failures;
+        }
+
+        public boolean hasErrors() {
+            return !getFailures().isEmpty();
+        }
+    }
+
+    /**
+     * One request's worth of work
+     */
+    private static class Batch {
+        List<String> adds = new ArrayList<>();
+        List<Integer> removes = new ArrayList<>();
+    }
+
+    /**
+     * Add and link images to a post and unlink others, skipping new images that
+     * duplicate another image of the post
+     * @param postId Post ID
+     * @param addUrls URLs of images to create if needed and link to the post
+     * @param removeImageIds IDs of images to unlink from the post
+     * @param keptUrls URLs of images that stay linked, which new images are compared against
+     * @return Future with a result for every image; never fails
+     */
+    public static CompletableFuture<SaveReport> saveImages(int postId, List<String> addUrls, List<Integer> removeImageIds,
+            List<String> keptUrls) {
+        // Look up the IDs of images the server may already have in one request, so the
+        // batches can send them along; runs next to the duplicate check
+        CompletableFuture<Map<String, Integer>> knownIds = ImageIdIndex.resolveAsync(addUrls)
+            .exceptionally(e -> Collections.emptyMap());
+        return PerceptualHash.findDuplicatesAsync(addUrls, keptUrls)
+            .exceptionally(e -> Collections.emptyMap())
+            .thenCombine(knownIds, (duplicates, ids) -> duplicates)
+            .thenCompose(duplicates -> {
+                List<String> uniqueUrls = new ArrayList<>(addUrls);
+                uniqueUrls.removeAll(duplicates.keySet());
+                if (!duplicates.isEmpty()) {
+                    System.out.println("DEBUG - ImageSavePipeline - Skipping duplicate images: " + duplicates);
+                }
+
+                return saveImages(postId, uniqueUrls, removeImageIds).thenApply(report -> {
+                    for (Map.Entry<String, String> duplicate : duplicates.entrySet()) {
+                        ImageSaveResult result = new ImageSaveResult();
+                        result.url = duplicate.getKey();
+                        result.status = "duplicate";
+                        result.duplicateOf = duplicate.getValue();
+                        report.results.add(result);
+                    }
+                    return report;
+                });
+            });
+    }
+
+    /**
+     * Add and link images to a post and unlink others
+     * @param postId Post ID
+     * @param addUrls URLs of images to create if needed and link to the post
+     * @param removeImageIds IDs of images to unlink from the post
+     * @return Future with a result for every image; never fails
+     */
+    public static CompletableFuture<SaveReport> saveImages(int postId, List<String> addUrls, List<Integer> removeImageIds) {
+        ConcurrentLinkedQueue<Batch> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < addUrls.size(); i += BATCH_SIZE) {
+            Batch batch = new Batch();
+            batch.adds.addAll(addUrls.subList(i, Math.min(i + BATCH_SIZE, addUrls.size())));
+            queue.add(batch);
+        }
+        for (int i = 0; i < removeImageIds.size(); i += BATCH_SIZE) {
+            Batch batch = new Batch();
+            batch.removes.addAll(removeImageIds.subList(i, Math.min(i + BATCH_SIZE, removeImageIds.size())));
+            queue.add(batch);
+        }
+
+        SaveReport report = new SaveReport();
+        if (queue.isEmpty()) {
+            return CompletableFuture.completedFuture(report);
+        }
+
+        System.out.println("DEBUG - ImageSavePipeline - Saving " + addUrls.size() + " images and removing "
+                + removeImageIds.size() + " for post ID: " + postId + " in " + queue.size() + " batches");
+
+        // Each worker takes batches off the queue one at a time, which caps the requests in flight
+        List<ImageSaveResult> results = Collections.synchronizedList(new ArrayList<>());
+        int workers = Math.min(MAX_CONCURRENT, queue.size());
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[workers];
+        for (int i = 0; i < workers; i++) {
+            lanes[i] = ServiceExecutor.runAsync(() -> {
+                Batch batch;
+                while ((batch = queue.poll()) != null) {
+                    results.addAll(sendWithRetry(postId, batch));
+                }
+            });
+        }
+
+        return CompletableFuture.allOf(lanes).handle((v, error) -> {
+            report.results.addAll(results);
+            if (error != null) {
+                System.out.println("DEBUG - ImageSavePipeline - Unexpected error: " + error.getMessage());
+            }
+            return report;
+        });
+    }
+
+    /**
+     * Send one batch, retrying the images that failed until they succeed or run out of attempts
+     */
+    private static List<ImageSaveResult> sendWithRetry(int postId, Batch batch) {
+        List<ImageSaveResult> finished = new ArrayList<>();
+        Batch pending = batch;
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            List<ImageSaveResult> results = send(postId, pending, attempt);
+            boolean lastAttempt = attempt == MAX_ATTEMPTS;
+
+            Batch retry = new Batch();
+            List<ImageSaveResult> retried = new ArrayList<>();
+            for (ImageSaveResult result : results) {
+                if (result.isSuccess() || lastAttempt) {
+                    finished.add(result);
+                    continue;
+                }
+                retried.add(result);
+                if (result.url != null) {
+                    retry.adds.add(result.url);
+                } else {
+                    retry.removes.add(result.imageId);
+                }
+            }
+
+            if (retry.adds.isEmpty() && retry.removes.isEmpty()) {
+                break;
+            }
+
+            System.out.println("DEBUG - ImageSavePipeline - Retrying " + (retry.adds.size() + retry.removes.size())
+                    + " images for post ID: " + postId + " (attempt " + (attempt + 1) + ")");
+            try {
+                Thread.sleep(RETRY_DELAY_MS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Report the images that were waiting for a retry as failed
+                finished.addAll(retried);
+                break;
+            }
+            pending = retry;
+        }
+        return finished;
+    }
+
+    /**
+     * Send one batch request and turn the response into per-image results
+     */
+    private static List<ImageSaveResult> send(int postId, Batch batch, int attempt) {
+        List<ImageSaveResult> results = new ArrayList<>();
+        try {
+            JSONArray add = new JSONArray();
+            for (String url : batch.adds) {
+                JSONObject image = new JSONObject().put("url", url);
+                // Lets the server skip the URL lookup for images it already has
+                Integer indexedId = ImageIdIndex.get(url);
+                if (indexedId != null) {
+                    image.put("image_id", indexedId);
+                }
+                add.put(image);
+            }
+
+            JSONObject payload = new JSONObject();
+            payload.put("post_id", postId);
+            payload.put("add", add);
+            payload.put("remove", new JSONArray(batch.removes));
+
+            ApiClient.Response response = ApiClient.post("/posts/images/batch", payload.toString());
+            if (!response.isSuccess()) {
+                throw new Exception("HTTP Error: " + response.statusCode + " - " + response.body);
+            }
+
+            JsonReader reader = new JsonReader(response.body);
+            reader.beginObject();
+            if (!reader.findField("results")) {
+                throw new Exception("Invalid response format from batch API: " + response.body);
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                ImageSaveResult result = new ImageSaveResult();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "url" -> result.url = reader.nextStringOrNull();
+                        case "image_id" -> result.imageId = reader.nextIntOrDefault(-1);
+                        case "status" -> result.status = reader.nextString();
+                        case "error" -> result.error = reader.nextStringOrNull();
+                        default -> reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                result.attempts = attempt;
+                results.add(result);
+            }
+            reader.endArray();
+
+            // Removals that failed don't echo an ID we can lose; fill it back in by position
+            for (int i = 0; i < batch.removes.size() && batch.adds.size() + i < results.size(); i++) {
+                results.get(batch.adds.size() + i).imageId = batch.removes.get(i);
+            }
+
+            for (ImageSaveResult result : results) {
+                if (result.url != null && result.isSuccess()) {
+                    ImageIdIndex.put(result.url, result.imageId);
+                } else if (result.url == null && result.isSuccess()) {
+                    // The image record may be gone with its last link
+                    ImageIdIndex.removeId(result.imageId);
+                }
+            }
+        } catch (Exception e) {
+            // The whole request failed, so every image in it failed
+            System.out.println("DEBUG - ImageSavePipeline - Batch request failed: " + e.getMessage());
+            results.clear();
+            for (String url : batch.adds) {
+                results.add(failed(url, -1, e.getMessage(), attempt));
+            }
+            for (Integer imageId : batch.removes) {
+                results.add(failed(null, imageId, e.getMessage(), attempt));
+            }
+        }
+        return results;
+    }
+
+    private static ImageSaveResult failed(String url, int imageId, String error, int attempt) {
+        ImageSaveResult result = new ImageSaveResult();
+        result.url = url;
+        result.imageId = imageId;
+        result.status = "failed";
+        result.error = error;
+        result.attempts = attempt;
+        return result;
+    }
+}
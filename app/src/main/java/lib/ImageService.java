@@ -1,22 +1,18 @@
 	package lib;
 	
-	import java.io.BufferedReader;
-	import java.io.InputStreamReader;
-	import java.io.OutputStream;
-	import java.net.HttpURLConnection;
-	import java.net.URL;
 	import java.util.ArrayList;
+	import java.util.Collection;
+	import java.util.HashMap;
 	import java.util.List;
+	import java.util.Map;
+	import java.util.Objects;
+	import java.util.concurrent.CompletableFuture;
 	import java.util.function.Consumer;
 	
-	import javax.swing.SwingUtilities;
-	
 	import org.json.JSONArray;
 	import org.json.JSONObject;
 	
 	public class ImageService {
-	    private static final String API_BASE_URL = "http://localhost:8000/api";
-	    
 	    public static class ImageResult {
 	        public boolean success;
 	        public String message;
@@ -37,9 +33,15 @@
 	    
 	    // Add a new image with callback
 	    public static void addImage(String url, String source, Consumer<ImageResult> callback) {
+	        ServiceExecutor.deliver(addImageAsync(url, source), callback,
+	            e -> new ImageResult(false, "Error: " + e.getMessage()));
+	    }
+	    
+	    // Async variant of addImage, run on the shared service executor
+	    public static CompletableFuture<ImageResult> addImageAsync(String url, String source) {
 	        System.out.println("DEBUG - ImageService.addImage - URL: " + url);
 	        
-	        new Thread(() -> {
+	        return ServiceExecutor.supplyAsync(() -> {
 	            try {
 	                // Create JSON payload
 	                JSONObject payload = new JSONObject();
@@ -49,54 +51,44 @@
 	                
 	                System.out.println("DEBUG - ImageService.addImage - Request body: " + jsonBody);
 	                
-	                // Create connection
-	                URL apiUrl = new URL(API_BASE_URL + "/images/");
-	                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-	                conn.setRequestMethod("POST");
-	                conn.setRequestProperty("Content-Type", "application/json");
-	                conn.setRequestProperty("Accept", "application/json");
-	                conn.setDoOutput(true);
-	                
-	                // Send request body
-	                try (OutputStream os = conn.getOutputStream()) {
-	                    byte[] input = jsonBody.getBytes("utf-8");
-	                    os.write(input, 0, input.length);
-	                }
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.post("/images/", jsonBody);
 	                
 	                // Get response
-	                int responseCode = conn.getResponseCode();
+	                int responseCode = response.statusCode;
 	                System.out.println("DEBUG - ImageService.addImage - Response code: " + responseCode);
 	                
-	                // Read response body
-	                StringBuilder responseBody = new StringBuilder();
-	                try (BufferedReader br = new BufferedReader(
-	                        new InputStreamReader(
-	                                responseCode >= 200 && responseCode < 300 
-	                                ? conn.getInputStream() 
-	                                : conn.getErrorStream()))) {
-	                    String line;
-	                    while ((line = br.readLine()) != null) {
-	                        responseBody.append(line);
-	                    }
-	                }
-	                
-	                String responseBodyStr = responseBody.toString();
+	                String responseBodyStr = response.body;
 	                System.out.println("DEBUG - ImageService.addImage - Response body: " + responseBodyStr);
 	                
 	                // Process response
 	                if (responseCode >= 200 && responseCode < 300) {
 	                    try {
-	                        JSONObject result = new JSONObject(responseBodyStr);
-	                        ImageResult imageResult = new ImageResult(true, result.getString("status"));
-	                        imageResult.imageId = result.getInt("image_id");
+	                        String status = null;
+	                        int imageId = -1;
+	                        JsonReader reader = new JsonReader(responseBodyStr);
+	                        reader.beginObject();
+	                        while (reader.hasNext()) {
+	                            switch (reader.nextName()) {
+	                                case "status" -> status = reader.nextString();
+	                                case "image_id" -> imageId = reader.nextInt();
+	                                default -> reader.skipValue();
+	                            }
+	                        }
+	                        reader.endObject();
+	                        if (status == null || imageId < 0) {
+	                            throw new JsonReader.SyntaxException("Missing status or image_id");
+	                        }
+	                        
+	                        ImageResult imageResult = new ImageResult(true, status);
+	                        imageResult.imageId = imageId;
 	                        System.out.println("DEBUG - ImageService.addImage - Image ID: " + imageResult.imageId);
+	                        ImageIdIndex.put(url, imageResult.imageId);
 	                        
-	                        // Call callback on the main thread
-	                        SwingUtilities.invokeLater(() -> callback.accept(imageResult));
+	                        return imageResult;
 	                    } catch (Exception e) {
 	                        System.out.println("DEBUG - ImageService.addImage - Exception parsing response: " + e.getMessage());
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(false, "Failed to parse response: " + e.getMessage())));
+	                        return new ImageResult(false, "Failed to parse response: " + e.getMessage());
 	                    }
 	                } else {
 	                    String errorMsg = "Failed to add image. Status code: " + responseCode;
@@ -104,29 +96,32 @@
 	                        errorMsg += " - " + responseBodyStr;
 	                    }
 	                    final String finalErrorMsg = errorMsg;
-	                    SwingUtilities.invokeLater(() -> callback.accept(new ImageResult(false, finalErrorMsg)));
+	                    return new ImageResult(false, finalErrorMsg);
 	                }
 	            } catch (Exception e) {
 	                System.out.println("DEBUG - ImageService.addImage - Exception: " + e.getMessage());
-	                SwingUtilities.invokeLater(() -> 
-	                    callback.accept(new ImageResult(false, "Error: " + e.getMessage())));
+	                return new ImageResult(false, "Error: " + e.getMessage());
 	            }
-	        }).start();
+	        });
 	    }
 	    
 	    // Link an image to a post with callback
 	    public static void linkImageToPost(int postId, int imageId, Consumer<ImageResult> callback) {
+	        ServiceExecutor.deliver(linkImageToPostAsync(postId, imageId), callback,
+	            e -> new ImageResult(false, "Error: " + e.getMessage()));
+	    }
+	    
+	    // Async variant of linkImageToPost, run on the shared service executor
+	    public static CompletableFuture<ImageResult> linkImageToPostAsync(int postId, int imageId) {
 	        System.out.println("DEBUG - ImageService.linkImageToPost - Post ID: " + postId + ", Image ID: " + imageId);
 	        
 	        // Validate inputs
 	        if (postId <= 0 || imageId <= 0) {
 	            System.out.println("DEBUG - ImageService.linkImageToPost - Invalid parameters: postId=" + postId + ", imageId=" + imageId);
-	            SwingUtilities.invokeLater(() -> 
-	                callback.accept(new ImageResult(false, "Invalid post ID or image ID")));
-	            return;
+	            return CompletableFuture.completedFuture(new ImageResult(false, "Invalid post ID or image ID"));
 	        }
 	        
-	        new Thread(() -> {
+	        return ServiceExecutor.supplyAsync(() -> {
 	            try {
 	                // Create JSON payload
 	                JSONObject payload = new JSONObject();
@@ -136,50 +131,23 @@
 	                
 	                System.out.println("DEBUG - ImageService.linkImageToPost - Request body: " + jsonBody);
 	                
-	                // Create connection
-	                URL apiUrl = new URL(API_BASE_URL + "/posts/images/");
-	                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-	                conn.setRequestMethod("POST");
-	                conn.setRequestProperty("Content-Type", "application/json");
-	                conn.setRequestProperty("Accept", "application/json");
-	                conn.setDoOutput(true);
-	                
-	                // Send request body
-	                try (OutputStream os = conn.getOutputStream()) {
-	                    byte[] input = jsonBody.getBytes("utf-8");
-	                    os.write(input, 0, input.length);
-	                }
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.post("/posts/images/", jsonBody);
 	                
 	                // Get response
-	                int responseCode = conn.getResponseCode();
+	                int responseCode = response.statusCode;
 	                System.out.println("DEBUG - ImageService.linkImageToPost - Response code: " + responseCode);
 	                
-	                // Read response body
-	                StringBuilder responseBody = new StringBuilder();
-	                try (BufferedReader br = new BufferedReader(
-	                        new InputStreamReader(
-	                                responseCode >= 200 && responseCode < 300 
-	                                ? conn.getInputStream() 
-	                                : conn.getErrorStream()))) {
-	                    String line;
-	                    while ((line = br.readLine()) != null) {
-	                        responseBody.append(line);
-	                    }
-	                }
-	                
-	                String responseBodyStr = responseBody.toString();
+	                String responseBodyStr = response.body;
 	                System.out.println("DEBUG - ImageService.linkImageToPost - Response body: " + responseBodyStr);
 	                
 	                // Process response
 	                if (responseCode >= 200 && responseCode < 300) {
 	                    try {
-	                        JSONObject result = new JSONObject(responseBodyStr);
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(true, result.getString("status"))));
+	                        return new ImageResult(true, JsonReader.readStringField(responseBodyStr, "status"));
 	                    } catch (Exception e) {
 	                        System.out.println("DEBUG - ImageService.linkImageToPost - Exception parsing response: " + e.getMessage());
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(false, "Failed to parse response: " + e.getMessage())));
+	                        return new ImageResult(false, "Failed to parse response: " + e.getMessage());
 	                    }
 	                } else {
 	                    String errorMsg = "Failed to link image. Status code: " + responseCode;
@@ -187,68 +155,67 @@
 	                        errorMsg += " - " + responseBodyStr;
 	                    }
 	                    final String finalErrorMsg = errorMsg;
-	                    SwingUtilities.invokeLater(() -> callback.accept(new ImageResult(false, finalErrorMsg)));
+	                    return new ImageResult(false, finalErrorMsg);
 	                }
 	            } catch (Exception e) {
 	                System.out.println("DEBUG - ImageService.linkImageToPost - Exception: " + e.getMessage());
-	                SwingUtilities.invokeLater(() -> 
-	                    callback.accept(new ImageResult(false, "Error: " + e.getMessage())));
+	                return new ImageResult(false, "Error: " + e.getMessage());
 	            }
-	        }).start();
+	        });
 	    }
 	    
 	    // Get all images for a post with callback
 	    public static void getImagesForPost(int postId, Consumer<ImageResult> callback) {
-	        new Thread(() -> {
+	        ServiceExecutor.deliver(getImagesForPostAsync(postId), callback,
+	            e -> new ImageResult(false, "Error: " + e.getMessage()));
+	    }
+	    
+	    // Async variant of getImagesForPost, run on the shared service executor
+	    public static CompletableFuture<ImageResult> getImagesForPostAsync(int postId) {
+	        return ServiceExecutor.supplyAsync(() -> {
 	            try {
-	                // Create connection
-	                URL apiUrl = new URL(API_BASE_URL + "/posts/" + postId + "/images/");
-	                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-	                conn.setRequestMethod("GET");
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.get("/posts/" + postId + "/images/");
 	                
 	                // Get response
-	                int responseCode = conn.getResponseCode();
+	                int responseCode = response.statusCode;
 	                System.out.println("DEBUG - ImageService.getImagesForPost - Response code: " + responseCode);
 	                
-	                // Read response body
-	                StringBuilder responseBody = new StringBuilder();
-	                try (BufferedReader br = new BufferedReader(
-	                        new InputStreamReader(
-	                                responseCode >= 200 && responseCode < 300 
-	                                ? conn.getInputStream() 
-	                                : conn.getErrorStream()))) {
-	                    String line;
-	                    while ((line = br.readLine()) != null) {
-	                        responseBody.append(line);
-	                    }
-	                }
-	                
-	                String responseBodyStr = responseBody.toString();
+	                String responseBodyStr = response.body;
 	                System.out.println("DEBUG - ImageService.getImagesForPost - Response body: " + responseBodyStr);
 	                
 	                // Process response
 	                if (responseCode >= 200 && responseCode < 300) {
 	                    try {
 	                        ImageResult result = new ImageResult(true, "Images loaded");
-	                        JSONArray imagesArray = new JSONArray(responseBodyStr);
 	                        
 	                        // Parse the image data
 	                        List<ImageData> images = new ArrayList<>();
-	                        for (int i = 0; i < imagesArray.length(); i++) {
-	                            JSONObject imageObj = imagesArray.getJSONObject(i);
+	                        JsonReader reader = new JsonReader(responseBodyStr);
+	                        reader.beginArray();
+	                        while (reader.hasNext()) {
 	                            ImageData image = new ImageData();
-	                            image.imageId = imageObj.getInt("ImageID");
-	                            image.url = imageObj.getString("URL");
-	                            image.source = imageObj.has("Source") ? imageObj.getString("Source") : "";
+	                            image.source = "";
+	                            reader.beginObject();
+	                            while (reader.hasNext()) {
+	                                switch (reader.nextName()) {
+	                                    case "ImageID" -> image.imageId = reader.nextInt();
+	                                    case "URL" -> image.url = reader.nextString();
+	                                    case "Source" -> image.source = Objects.requireNonNullElse(reader.nextStringOrNull(), "");
+	                                    default -> reader.skipValue();
+	                                }
+	                            }
+	                            reader.endObject();
 	                            images.add(image);
 	                        }
+	                        reader.endArray();
 	                        
 	                        result.images = images;
-	                        SwingUtilities.invokeLater(() -> callback.accept(result));
+	                        ImageIdIndex.putAll(images);
+	                        return result;
 	                    } catch (Exception e) {
 	                        System.out.println("DEBUG - ImageService.getImagesForPost - Exception parsing response: " + e.getMessage());
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(false, "Failed to load images: " + e.getMessage())));
+	                        return new ImageResult(false, "Failed to load images: " + e.getMessage());
 	                    }
 	                } else {
 	                    String errorMsg = "Failed to get images. Status code: " + responseCode;
@@ -256,76 +223,68 @@
 	                        errorMsg += " - " + responseBodyStr;
 	                    }
 	                    final String finalErrorMsg = errorMsg;
-	                    SwingUtilities.invokeLater(() -> callback.accept(new ImageResult(false, finalErrorMsg)));
+	                    return new ImageResult(false, finalErrorMsg);
 	                }
 	            } catch (Exception e) {
 	                System.out.println("DEBUG - ImageService.getImagesForPost - Exception: " + e.getMessage());
-	                SwingUtilities.invokeLater(() -> 
-	                    callback.accept(new ImageResult(false, "Error: " + e.getMessage())));
+	                return new ImageResult(false, "Error: " + e.getMessage());
 	            }
-	        }).start();
+	        });
 	    }
 	    
 	    public static void searchGoogleImages(String query, Consumer<ImageResult> callback) {
+	        ServiceExecutor.deliver(searchGoogleImagesAsync(query), callback,
+	            e -> new ImageResult(false, "Error: " + e.getMessage()));
+	    }
+	    
+	    // Async variant of searchGoogleImages, run on the shared service executor
+	    public static CompletableFuture<ImageResult> searchGoogleImagesAsync(String query) {
 	        System.out.println("DEBUG - ImageService.searchGoogleImages - Query: " + query);
 	        
-	        new Thread(() -> {
+	        return ServiceExecutor.supplyAsync(() -> {
 	            try {
 	                // URL encode the query
 	                String encodedQuery = java.net.URLEncoder.encode(query, "UTF-8");
 	                
-	                // Create connection
-	                URL apiUrl = new URL(API_BASE_URL + "/google/images/?q=" + encodedQuery);
-	                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-	                conn.setRequestMethod("GET");
-	                conn.setRequestProperty("Accept", "application/json");
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.get("/google/images/?q=" + encodedQuery);
 	                
 	                // Get response
-	                int responseCode = conn.getResponseCode();
+	                int responseCode = response.statusCode;
 	                System.out.println("DEBUG - ImageService.searchGoogleImages - Response code: " + responseCode);
 	                
-	                // Read response body
-	                StringBuilder responseBody = new StringBuilder();
-	                try (BufferedReader br = new BufferedReader(
-	                        new InputStreamReader(
-	                                responseCode >= 200 && responseCode < 300 
-	                                ? conn.getInputStream() 
-	                                : conn.getErrorStream()))) {
-	                    String line;
-	                    while ((line = br.readLine()) != null) {
-	                        responseBody.append(line);
-	                    }
-	                }
-	                
-	                String responseBodyStr = responseBody.toString();
+	                String responseBodyStr = response.body;
 	                System.out.println("DEBUG - ImageService.searchGoogleImages - Response body: " + responseBodyStr);
 	                
 	                // Process response
 	                if (responseCode >= 200 && responseCode < 300) {
 	                    try {
-	                        JSONObject result = new JSONObject(responseBodyStr);
-	                        JSONArray thumbnails = result.getJSONArray("thumbnails");
+	                        JsonReader reader = new JsonReader(responseBodyStr);
+	                        reader.beginObject();
+	                        if (!reader.findField("thumbnails")) {
+	                            throw new JsonReader.SyntaxException("Missing field \"thumbnails\"");
+	                        }
 	                        
 	                        // Create image result with the thumbnails
 	                        ImageResult imageResult = new ImageResult(true, "Images found");
 	                        List<ImageData> images = new ArrayList<>();
 	                        
-	                        for (int i = 0; i < thumbnails.length(); i++) {
-	                            String thumbnailUrl = thumbnails.getString(i);
+	                        reader.beginArray();
+	                        while (reader.hasNext()) {
+	                            String thumbnailUrl = reader.nextString();
 	                            ImageData image = new ImageData();
 	                            image.url = thumbnailUrl;
 	                            image.source = "Google Images";
 	                            images.add(image);
 	                        }
+	                        reader.endArray();
 	                        
 	                        imageResult.images = images;
 	                        
-	                        // Call callback on the main thread
-	                        SwingUtilities.invokeLater(() -> callback.accept(imageResult));
+	                        return imageResult;
 	                    } catch (Exception e) {
 	                        System.out.println("DEBUG - ImageService.searchGoogleImages - Exception parsing response: " + e.getMessage());
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(false, "Failed to parse response: " + e.getMessage())));
+	                        return new ImageResult(false, "Failed to parse response: " + e.getMessage());
 	                    }
 	                } else {
 	                    String errorMsg = "Failed to search images. Status code: " + responseCode;
@@ -333,64 +292,59 @@
 	                        errorMsg += " - " + responseBodyStr;
 	                    }
 	                    final String finalErrorMsg = errorMsg;
-	                    SwingUtilities.invokeLater(() -> callback.accept(new ImageResult(false, finalErrorMsg)));
+	                    return new ImageResult(false, finalErrorMsg);
 	                }
 	            } catch (Exception e) {
 	                System.out.println("DEBUG - ImageService.searchGoogleImages - Exception: " + e.getMessage());
-	                SwingUtilities.invokeLater(() -> 
-	                    callback.accept(new ImageResult(false, "Error: " + e.getMessage())));
+	                return new ImageResult(false, "Error: " + e.getMessage());
 	            }
-	        }).start();
+	        });
 	    }
 	    
 	    public static void getImageIdByUrl(String url, Consumer<ImageResult> callback) {
+	        ServiceExecutor.deliver(getImageIdByUrlAsync(url), callback,
+	            e -> new ImageResult(false, "Error: " + e.getMessage()));
+	    }
+	    
+	    // Async variant of getImageIdByUrl, run on the shared service executor
+	    public static CompletableFuture<ImageResult> getImageIdByUrlAsync(String url) {
 	        System.out.println("DEBUG - ImageService.getImageIdByUrl - URL: " + url);
 	        
-	        new Thread(() -> {
+	        // Known images don't need a round trip
+	        Integer indexedId = ImageIdIndex.get(url);
+	        if (indexedId != null) {
+	            ImageResult imageResult = new ImageResult(true, "Image found");
+	            imageResult.imageId = indexedId;
+	            return CompletableFuture.completedFuture(imageResult);
+	        }
+	        
+	        return ServiceExecutor.supplyAsync(() -> {
 	            try {
 	                // URL encode the query
 	                String encodedUrl = java.net.URLEncoder.encode(url, "UTF-8");
 	                
-	                // Create connection
-	                URL apiUrl = new URL(API_BASE_URL + "/images/find?url=" + encodedUrl);
-	                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-	                conn.setRequestMethod("GET");
-	                conn.setRequestProperty("Accept", "application/json");
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.get("/images/find?url=" + encodedUrl);
 	                
 	                // Get response
-	                int responseCode = conn.getResponseCode();
+	                int responseCode = response.statusCode;
 	                System.out.println("DEBUG - ImageService.getImageIdByUrl - Response code: " + responseCode);
 	                
-	                // Read response body
-	                StringBuilder responseBody = new StringBuilder();
-	                try (BufferedReader br = new BufferedReader(
-	                        new InputStreamReader(
-	                                responseCode >= 200 && responseCode < 300 
-	                                ? conn.getInputStream() 
-	                                : conn.getErrorStream()))) {
-	                    String line;
-	                    while ((line = br.readLine()) != null) {
-	                        responseBody.append(line);
-	                    }
-	                }
-	                
-	                String responseBodyStr = responseBody.toString();
+	                String responseBodyStr = response.body;
 	                System.out.println("DEBUG - ImageService.getImageIdByUrl - Response: " + responseBodyStr);
 	                
 	                // Process response
 	                if (responseCode >= 200 && responseCode < 300) {
 	                    try {
-	                        JSONObject result = new JSONObject(responseBodyStr);
 	                        ImageResult imageResult = new ImageResult(true, "Image found");
-	                        imageResult.imageId = result.getInt("image_id");
+	                        imageResult.imageId = JsonReader.readIntField(responseBodyStr, "image_id");
 	                        System.out.println("DEBUG - ImageService.getImageIdByUrl - Image ID: " + imageResult.imageId);
+	                        ImageIdIndex.put(url, imageResult.imageId);
 	                        
-	                        // Return result
-	                        SwingUtilities.invokeLater(() -> callback.accept(imageResult));
+	                        return imageResult;
 	                    } catch (Exception e) {
 	                        System.out.println("DEBUG - ImageService.getImageIdByUrl - Exception parsing: " + e.getMessage());
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(false, "Failed to parse response: " + e.getMessage())));
+	                        return new ImageResult(false, "Failed to parse response: " + e.getMessage());
 	                    }
 	                } else {
 	                    String errorMsg = "Failed to find image. Status code: " + responseCode;
@@ -398,20 +352,74 @@
 	                        errorMsg += " - " + responseBodyStr;
 	                    }
 	                    final String finalErrorMsg = errorMsg;
-	                    SwingUtilities.invokeLater(() -> callback.accept(new ImageResult(false, finalErrorMsg)));
+	                    return new ImageResult(false, finalErrorMsg);
 	                }
 	            } catch (Exception e) {
 	                System.out.println("DEBUG - ImageService.getImageIdByUrl - Exception: " + e.getMessage());
-	                SwingUtilities.invokeLater(() -> 
-	                    callback.accept(new ImageResult(false, "Error: " + e.getMessage())));
+	                return new ImageResult(false, "Error: " + e.getMessage());
+	            }
+	        });
+	    }
+	    
+	    // Look up the image IDs of many URLs with one request
+	    public static void findImageIds(Collection<String> urls, Consumer<Map<String, Integer>> callback) {
+	        ServiceExecutor.deliver(findImageIdsAsync(urls), callback, e -> new HashMap<>());
+	    }
+	    
+	    // Async variant of findImageIds, run on the shared service executor.
+	    // Completes with the IDs of the URLs that have an image; unknown URLs are left out
+	    public static CompletableFuture<Map<String, Integer>> findImageIdsAsync(Collection<String> urls) {
+	        System.out.println("DEBUG - ImageService.findImageIds - URL count: " + urls.size());
+	        
+	        return ServiceExecutor.supplyAsync(() -> {
+	            Map<String, Integer> found = new HashMap<>();
+	            try {
+	                // Create JSON payload
+	                JSONObject payload = new JSONObject();
+	                payload.put("urls", new JSONArray(urls));
+	                
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.post("/images/find/batch", payload.toString());
+	                
+	                // Get response
+	                int responseCode = response.statusCode;
+	                System.out.println("DEBUG - ImageService.findImageIds - Response code: " + responseCode);
+	                
+	                // Process response
+	                if (responseCode >= 200 && responseCode < 300) {
+	                    JsonReader reader = new JsonReader(response.body);
+	                    reader.beginObject();
+	                    if (reader.findField("images")) {
+	                        reader.beginObject();
+	                        while (reader.hasNext()) {
+	                            String url = reader.nextName();
+	                            int imageId = reader.nextInt();
+	                            found.put(url, imageId);
+	                            ImageIdIndex.put(url, imageId);
+	                        }
+	                        reader.endObject();
+	                    }
+	                    System.out.println("DEBUG - ImageService.findImageIds - Found: " + found.size());
+	                } else {
+	                    System.out.println("DEBUG - ImageService.findImageIds - Failed: " + response.body);
+	                }
+	            } catch (Exception e) {
+	                System.out.println("DEBUG - ImageService.findImageIds - Exception: " + e.getMessage());
 	            }
-	        }).start();
+	            return found;
+	        });
 	    }
 	    
 	    public static void deleteImage(int postId, int imageId, Consumer<ImageResult> callback) {
+	        ServiceExecutor.deliver(deleteImageAsync(postId, imageId), callback,
+	            e -> new ImageResult(false, "Error: " + e.getMessage()));
+	    }
+	    
+	    // Async variant of deleteImage, run on the shared service executor
+	    public static CompletableFuture<ImageResult> deleteImageAsync(int postId, int imageId) {
 	        System.out.println("DEBUG - ImageService.deleteImage - Post ID: " + postId + ", Image ID: " + imageId);
 	        
-	        new Thread(() -> {
+	        return ServiceExecutor.supplyAsync(() -> {
 	            try {
 	                // Create JSON payload
 	                JSONObject payload = new JSONObject();
@@ -421,50 +429,26 @@
 	                
 	                System.out.println("DEBUG - ImageService.deleteImage - Request body: " + jsonBody);
 	                
-	                // Create connection
-	                URL apiUrl = new URL(API_BASE_URL + "/posts/images/");
-	                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-	                conn.setRequestMethod("DELETE");
-	                conn.setRequestProperty("Content-Type", "application/json");
-	                conn.setRequestProperty("Accept", "application/json");
-	                conn.setDoOutput(true);
-	                
-	                // Send request body
-	                try (OutputStream os = conn.getOutputStream()) {
-	                    byte[] input = jsonBody.getBytes("utf-8");
-	                    os.write(input, 0, input.length);
-	                }
+	                // Send request through the shared client
+	                ApiClient.Response response = ApiClient.delete("/posts/images/", jsonBody);
 	                
 	                // Get response
-	                int responseCode = conn.getResponseCode();
+	                int responseCode = response.statusCode;
 	                System.out.println("DEBUG - ImageService.deleteImage - Response code: " + responseCode);
 	                
-	                // Read response body
-	                StringBuilder responseBody = new StringBuilder();
-	                try (BufferedReader br = new BufferedReader(
-	                        new InputStreamReader(
-	                                responseCode >= 200 && responseCode < 300 
-	                                ? conn.getInputStream() 
-	                                : conn.getErrorStream()))) {
-	                    String line;
-	                    while ((line = br.readLine()) != null) {
-	                        responseBody.append(line);
-	                    }
-	                }
-	                
-	                String responseBodyStr = responseBody.toString();
+	                String responseBodyStr = response.body;
 	                System.out.println("DEBUG - ImageService.deleteImage - Response body: " + responseBodyStr);
 	                
 	                // Process response
 	                if (responseCode >= 200 && responseCode < 300) {
 	                    try {
-	                        JSONObject result = new JSONObject(responseBodyStr);
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(true, result.getString("status"))));
+	                        String status = JsonReader.readStringField(responseBodyStr, "status");
+	                        // The image record may be gone with its last link
+	                        ImageIdIndex.removeId(imageId);
+	                        return new ImageResult(true, status);
 	                    } catch (Exception e) {
 	                        System.out.println("DEBUG - ImageService.deleteImage - Exception parsing response: " + e.getMessage());
-	                        SwingUtilities.invokeLater(() -> 
-	                            callback.accept(new ImageResult(false, "Failed to parse response: " + e.getMessage())));
+	                        return new ImageResult(false, "Failed to parse response: " + e.getMessage());
 	                    }
 	                } else {
 	                    String errorMsg = "Failed to delete image. Status code: " + responseCode;
@@ -472,13 +456,12 @@
 	                        errorMsg += " - " + responseBodyStr;
 	                    }
 	                    final String finalErrorMsg = errorMsg;
-	                    SwingUtilities.invokeLater(() -> callback.accept(new ImageResult(false, finalErrorMsg)));
+	                    return new ImageResult(false, finalErrorMsg);
 	                }
 	            } catch (Exception e) {
 	                System.out.println("DEBUG - ImageService.deleteImage - Exception: " + e.getMessage());
-	                SwingUtilities.invokeLater(() -> 
-	                    callback.accept(new ImageResult(false, "Error: " + e.getMessage())));
+	                return new ImageResult(false, "Error: " + e.getMessage());
 	            }
-	        }).start();
+	        });
 	    }
 	}
\ No newline at end of file
@@ -0,0 +1,594 @@
+package lib;
+
+/**
+ * Pull parser for JSON responses from the backend.
+ *
+ * The reader walks the response text in place and only builds a String for a
+ * name or value when the caller asks for it, so decoding a response costs about
+ * as much as the fields that are actually read. Skipped values, including whole
+ * nested objects, allocate nothing. Strings without escapes are cut straight
+ * from the response; escapes, including \\uXXXX and surrogate pairs, are decoded
+ * as they are read.
+ *
+ * Typical use reads an object field by field and skips the rest:
+ *
+ *   JsonReader reader = new JsonReader(response.body);
+ *   reader.beginObject();
+ *   while (reader.hasNext()) {
+ *       switch (reader.nextName()) {
+ *           case "summary" -> summary = reader.nextString();
+ *           default -> reader.skipValue();
+ *       }
+ *   }
+ *   reader.endObject();
+ *
+ * Malformed input throws JsonReader.SyntaxException with the position it was found at.
+ */
+public class JsonReader {
+    /**
+     * Kind of the next item in the document
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    /**
+     * Thrown when the input is not valid JSON or doesn't have the expected shape
+     */
+    public static class SyntaxException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SyntaxException(String message) {
+            super(message);
+        }
+    }
+
+    // What the reader expects next in each open container
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final CharSequence in;
+    private final int limit;
+    private int pos;
+
+    private int[] stack = new int[16];
+    private int depth;
+    private Token peeked;
+
+    /**
+     * @param json Document to read; it is not copied
+     */
+    public JsonReader(CharSequence json) {
+        this.in = json;
+        this.limit = json.length();
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Read one string field of a JSON object, skipping everything else
+     * @param json Object document
+     * @param name Field name
+     * @return The field's value
+     * @throws SyntaxException if the field is missing
+     */
+    public static String readStringField(CharSequence json, String name) {
+        JsonReader reader = new JsonReader(json);
+        reader.beginObject();
+        if (!reader.findField(name)) {
+            throw new SyntaxException("Missing field \"" + name + "\"");
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * Read one int field of a JSON object, skipping everything else
+     * @param json Object document
+     * @param name Field name
+     * @return The field's value
+     * @throws SyntaxException if the field is missing
+     */
+    public static int readIntField(CharSequence json, String name) {
+        JsonReader reader = new JsonReader(json);
+        reader.beginObject();
+        if (!reader.findField(name)) {
+            throw new SyntaxException("Missing field \"" + name + "\"");
+        }
+        return reader.nextInt();
+    }
+
+    /**
+     * Look at the next item without consuming it
+     * @return The kind of the next item
+     */
+    public Token peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int scope = stack[depth - 1];
+        switch (scope) {
+            case EMPTY_ARRAY -> {
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+            }
+            case NONEMPTY_ARRAY -> {
+                int c = nextNonWhitespace();
+                pos++;
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'", pos - 1);
+                }
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                stack[depth - 1] = DANGLING_NAME;
+                int c = nextNonWhitespace();
+                if (c == '}') {
+                    pos++;
+                    return peeked = Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'", pos);
+                    }
+                    pos++;
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name", pos);
+                }
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'", pos);
+                }
+                pos++;
+            }
+            case EMPTY_DOCUMENT -> stack[depth - 1] = NONEMPTY_DOCUMENT;
+            default -> {
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Unexpected content after the document", pos);
+                }
+                return peeked = Token.END_DOCUMENT;
+            }
+        }
+
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{' -> {
+                pos++;
+                return peeked = Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                pos++;
+                return peeked = Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                return peeked = Token.STRING;
+            }
+            case 't', 'f' -> {
+                return peeked = Token.BOOLEAN;
+            }
+            case 'n' -> {
+                return peeked = Token.NULL;
+            }
+            case -1 -> throw syntaxError("Unexpected end of input", pos);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'", pos);
+            }
+        }
+    }
+
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+        peeked = null;
+    }
+
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        depth--;
+        peeked = null;
+    }
+
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+        peeked = null;
+    }
+
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        depth--;
+        peeked = null;
+    }
+
+    /**
+     * Whether the current object or array has another element
+     */
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Read the name of the next field in an object
+     */
+    public String nextName() {
+        expect(Token.NAME);
+        peeked = null;
+        return readString();
+    }
+
+    /**
+     * Read a string value. Numbers are returned as written.
+     */
+    public String nextString() {
+        Token token = peek();
+        peeked = null;
+        if (token == Token.STRING) {
+            return readString();
+        }
+        if (token == Token.NUMBER) {
+            int start = pos;
+            return in.subSequence(start, skipNumber()).toString();
+        }
+        peeked = token;
+        throw syntaxError("Expected a string but was " + token, pos);
+    }
+
+    /**
+     * Read a string value that may be null
+     * @return The string, or null for a JSON null
+     */
+    public String nextStringOrNull() {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    /**
+     * Read an int value without allocating. Quoted numbers are accepted.
+     */
+    public int nextInt() {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Number out of int range", pos);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Read an int value that may be null
+     * @param fallback Value returned for a JSON null
+     */
+    public int nextIntOrDefault(int fallback) {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return fallback;
+        }
+        return nextInt();
+    }
+
+    /**
+     * Read a long value without allocating. Quoted numbers are accepted.
+     */
+    public long nextLong() {
+        Token token = peek();
+        int start = pos;
+        int end;
+        if (token == Token.NUMBER) {
+            end = skipNumber();
+        } else if (token == Token.STRING) {
+            start = pos + 1;
+            end = skipString() - 1;
+        } else {
+            throw syntaxError("Expected a number but was " + token, pos);
+        }
+        peeked = null;
+        try {
+            return Long.parseLong(in, start, end, 10);
+        } catch (NumberFormatException e) {
+            // Whole-valued decimals such as 3.0 still count
+            double value = parseDouble(in.subSequence(start, end).toString(), start);
+            if (value != (long) value) {
+                throw syntaxError("Expected a whole number", start);
+            }
+            return (long) value;
+        }
+    }
+
+    public double nextDouble() {
+        peek();
+        int start = pos;
+        return parseDouble(nextString(), start);
+    }
+
+    private double parseDouble(String text, int position) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number '" + text + "'", position);
+        }
+    }
+
+    /**
+     * Read a boolean value. Numbers are accepted as 0 = false, anything else = true.
+     */
+    public boolean nextBoolean() {
+        Token token = peek();
+        if (token == Token.NUMBER) {
+            return nextLong() != 0;
+        }
+        expect(Token.BOOLEAN);
+        peeked = null;
+        if (matches("true")) {
+            pos += 4;
+            return true;
+        }
+        if (matches("false")) {
+            pos += 5;
+            return false;
+        }
+        throw syntaxError("Expected a boolean", pos);
+    }
+
+    public void nextNull() {
+        expect(Token.NULL);
+        peeked = null;
+        if (!matches("null")) {
+            throw syntaxError("Expected null", pos);
+        }
+        pos += 4;
+    }
+
+    /**
+     * Skip the next value, or the next field if positioned at a name
+     */
+    public void skipValue() {
+        if (peek() == Token.NAME) {
+            peeked = null;
+            skipString();
+        }
+        int skipDepth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    skipDepth++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    skipDepth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    if (skipDepth == 0) {
+                        // Skipping past the end of the container would desync the caller
+                        throw syntaxError("Nothing to skip before " + peek(), pos);
+                    }
+                    if (peek() == Token.END_OBJECT) {
+                        endObject();
+                    } else {
+                        endArray();
+                    }
+                    skipDepth--;
+                }
+                case NAME, STRING -> {
+                    peeked = null;
+                    skipString();
+                }
+                case NUMBER -> {
+                    peeked = null;
+                    skipNumber();
+                }
+                case BOOLEAN -> nextBoolean();
+                case NULL -> nextNull();
+                case END_DOCUMENT -> throw syntaxError("Nothing to skip", pos);
+            }
+        } while (skipDepth > 0);
+    }
+
+    /**
+     * Read the next value as its JSON text, e.g. to store it without decoding it
+     * @return The value exactly as written in the document
+     */
+    public String nextSource() {
+        Token token = peek();
+        if (token == Token.NAME || token == Token.END_OBJECT || token == Token.END_ARRAY || token == Token.END_DOCUMENT) {
+            throw syntaxError("Expected a value but was " + token, pos);
+        }
+        // Containers have already moved past their opening bracket
+        int start = token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY ? pos - 1 : pos;
+        skipValue();
+        return in.subSequence(start, pos).toString();
+    }
+
+    /**
+     * Skip fields of the current object until the named one
+     * @param name Field name
+     * @return true if positioned at the field's value, false if the object ended first
+     */
+    public boolean findField(String name) {
+        while (hasNext()) {
+            if (nextNameEquals(name)) {
+                return true;
+            }
+            skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Read the next name and compare it, without building a String when it has no escapes
+     */
+    private boolean nextNameEquals(String name) {
+        expect(Token.NAME);
+        peeked = null;
+        int start = pos + 1;
+        int end = skipString() - 1;
+        for (int i = start; i < end; i++) {
+            if (in.charAt(i) == '\\') {
+                return name.equals(decodeString(start, end));
+            }
+        }
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (in.charAt(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read a quoted string at pos, copying only its characters
+     */
+    private String readString() {
+        int start = pos + 1;
+        int end = skipString() - 1;
+        for (int i = start; i < end; i++) {
+            if (in.charAt(i) == '\\') {
+                return decodeString(start, end);
+            }
+        }
+        return in.subSequence(start, end).toString();
+    }
+
+    private String decodeString(int start, int end) {
+        StringBuilder out = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            char c = in.charAt(i++);
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escape = in.charAt(i++);
+            switch (escape) {
+                case '"', '\\', '/' -> out.append(escape);
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    if (i + 4 > end) {
+                        throw syntaxError("Truncated unicode escape", i - 2);
+                    }
+                    // Surrogate pairs arrive as two escapes and are appended one half at a time
+                    int code = 0;
+                    for (int k = 0; k < 4; k++) {
+                        int digit = Character.digit(in.charAt(i++), 16);
+                        if (digit < 0) {
+                            throw syntaxError("Invalid unicode escape", i - 1);
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    out.append((char) code);
+                }
+                default -> throw syntaxError("Invalid escape '\\" + escape + "'", i - 2);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Move past the quoted string at pos
+     * @return Position after the closing quote
+     */
+    private int skipString() {
+        int i = pos + 1;
+        while (i < limit) {
+            char c = in.charAt(i++);
+            if (c == '"') {
+                return pos = i;
+            }
+            if (c == '\\') {
+                if (i == limit) {
+                    // Nothing left to escape
+                    break;
+                }
+                i++;
+            } else if (c < 0x20) {
+                throw syntaxError("Control character in string", i - 1);
+            }
+        }
+        throw syntaxError("Unterminated string", pos);
+    }
+
+    /**
+     * Move past the number at pos
+     * @return Position after the number
+     */
+    private int skipNumber() {
+        int i = pos;
+        while (i < limit) {
+            char c = in.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return pos = i;
+    }
+
+    private boolean matches(String literal) {
+        if (pos + literal.length() > limit) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (in.charAt(pos + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextNonWhitespace() {
+        while (pos < limit) {
+            char c = in.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token, pos);
+        }
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            stack = java.util.Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    private SyntaxException syntaxError(String message, int position) {
+        return new SyntaxException(message + " at position " + position);
+    }
+}
@@ -0,0 +1,156 @@
+package lib;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Perceptual hashing used to spot the same photo at different URLs.
+ *
+ * Image search often returns one photo several times, resized, recompressed
+ * or served from another host. Comparing URLs misses those, so images are
+ * compared by a 64-bit difference hash (dHash) of their thumbnail instead: the
+ * thumbnail is shrunk to 9x8 grayscale and each bit records whether a pixel is
+ * brighter than its right-hand neighbour. Two images whose hashes differ in at
+ * most dimf.images.duplicateDistance bits (default 8) count as duplicates.
+ *
+ * Hashes come from ThumbnailService, so an image that is already on screen is
+ * hashed without being downloaded again.
+ */
+public class PerceptualHash {
+    private static final int MAX_DISTANCE = Integer.getInteger("dimf.images.duplicateDistance", 8);
+
+    /**
+     * Near-duplicate lookup over a small set of hashed images, first one wins
+     */
+    public static class Index {
+        private final Map<String, Long> hashes = new LinkedHashMap<>();
+
+        /**
+         * Add an image unless it duplicates one already in the index
+         * @param url Image URL
+         * @param hash The image's dHash
+         * @return URL of the image it duplicates, or null if it was added
+         */
+        public String add(String url, long hash) {
+            String original = findDuplicate(url, hash);
+            if (original == null) {
+                hashes.put(url, hash);
+            }
+            return original;
+        }
+
+        /**
+         * Find an indexed image that looks the same
+         * @param url Image URL, never reported as a duplicate of itself
+         * @param hash The image's dHash
+         * @return URL of the duplicate, or null if there is none
+         */
+        public String findDuplicate(String url, long hash) {
+            for (Map.Entry<String, Long> entry : hashes.entrySet()) {
+                if (!entry.getKey().equals(url) && isDuplicate(entry.getValue(), hash)) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        public void remove(String url) {
+            hashes.remove(url);
+        }
+
+        public void clear() {
+            hashes.clear();
+        }
+    }
+
+    /**
+     * Compute the dHash of an image
+     * @param image Decoded image, usually a thumbnail
+     * @return 64-bit difference hash
+     */
+    public static long dHash(BufferedImage image) {
+        BufferedImage small = new BufferedImage(9, 8, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = small.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, 9, 8, null);
+        } finally {
+            g.dispose();
+        }
+
+        Raster pixels = small.getRaster();
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                hash <<= 1;
+                if (pixels.getSample(x, y, 0) > pixels.getSample(x + 1, y, 0)) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of differing bits between two hashes
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public static boolean isDuplicate(long a, long b) {
+        return distance(a, b) <= MAX_DISTANCE;
+    }
+
+    /**
+     * Hash an image by URL, off the EDT
+     * @param url Image URL
+     * @return Future with the hash, failed if the image could not be loaded
+     */
+    public static CompletableFuture<Long> hashAsync(String url) {
+        return ThumbnailService.loadThumbnail(url).thenApply(PerceptualHash::dHash);
+    }
+
+    /**
+     * Work out which candidate images duplicate a kept image or an earlier candidate
+     * @param candidates Images that may be dropped, in order of preference
+     * @param kept Images that always stay
+     * @return Future with a map from each duplicate candidate to the image it duplicates.
+     *         Images that fail to load are never reported.
+     */
+    public static CompletableFuture<Map<String, String>> findDuplicatesAsync(List<String> candidates, List<String> kept) {
+        if (candidates.isEmpty() || candidates.size() + kept.size() < 2) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+
+        List<String> all = new ArrayList<>(kept);
+        all.addAll(candidates);
+        List<CompletableFuture<Long>> hashes = new ArrayList<>();
+        for (String url : all) {
+            hashes.add(hashAsync(url).exceptionally(e -> null));
+        }
+
+        return CompletableFuture.allOf(hashes.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            Index index = new Index();
+            Map<String, String> duplicates = new LinkedHashMap<>();
+            for (int i = 0; i < all.size(); i++) {
+                Long hash = hashes.get(i).join();
+                if (hash == null) {
+                    continue;
+                }
+                String original = index.add(all.get(i), hash);
+                if (original != null && i >= kept.size()) {
+                    duplicates.put(all.get(i), original);
+                }
+            }
+            return duplicates;
+        });
+    }
+}
@@ -1,16 +1,11 @@
 package lib;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
-import javax.swing.SwingUtilities;
-
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -18,8 +13,6 @@ import org.json.JSONObject;
  * Service responsible for all platform-related operations
  */
 public class PlatformService {
-    private static final String API_BASE_URL = "http://localhost:8000/api";
-    
     /**
      * Data class for platform information
      */
@@ -50,62 +43,64 @@ public class PlatformService {
      * @param callback Callback with platform data
      */
     public static void getAllPlatforms(Consumer<PlatformResult> callback) {
+        ServiceExecutor.deliver(getAllPlatformsAsync(), callback,
+            e -> new PlatformResult(false, "Error: " + e.getMessage()));
+    }
+    
+    /**
+     * Async variant of getAllPlatforms, run on the shared service executor
+     */
+    public static CompletableFuture<PlatformResult> getAllPlatformsAsync() {
         System.out.println("DEBUG - PlatformService.getAllPlatforms");
         
-        new Thread(() -> {
+        return ServiceExecutor.supplyAsync(() -> {
             try {
-                // Create connection
-                URL apiUrl = new URL(API_BASE_URL + "/platforms/");
-                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-                conn.setRequestMethod("GET");
+                // Send request through the shared client
+                ApiClient.Response response = ApiClient.get("/platforms/");
                 
                 // Get response
-                int responseCode = conn.getResponseCode();
+                int responseCode = response.statusCode;
                 System.out.println("DEBUG - PlatformService.getAllPlatforms - Response code: " + responseCode);
                 
-                // Read response body
-                StringBuilder responseBody = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(
-                                responseCode >= 200 && responseCode < 300 
-                                ? conn.getInputStream() 
-                                : conn.getErrorStream()))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        responseBody.append(line);
-                    }
-                }
-                
-                String responseBodyStr = responseBody.toString();
+                String responseBodyStr = response.body;
                 System.out.println("DEBUG - PlatformService.getAllPlatforms - Response body: " + responseBodyStr);
                 
                 // Process response
                 if (responseCode >= 200 && responseCode < 300) {
                     try {
                         PlatformResult result = new PlatformResult(true, "Platforms loaded");
-                        JSONArray platformsArray = new JSONArray(responseBodyStr);
                         
                         // Parse the platform data
                         List<PlatformData> platforms = new ArrayList<>();
-                        for (int i = 0; i < platformsArray.length(); i++) {
-                            JSONObject platformObj = platformsArray.getJSONObject(i);
+                        JsonReader reader = new JsonReader(responseBodyStr);
+                        reader.beginArray();
+                        while (reader.hasNext()) {
                             PlatformData platform = new PlatformData();
-                            platform.platformId = platformObj.getInt("PlatformID");
-                            platform.name = platformObj.getString("Name");
-                            // Convert integer to boolean (0 = false, any other value = true)
-                            platform.apiAccessStatus = platformObj.getInt("APIAccessStatus") != 0;
-                            platform.platformUrl = platformObj.has("PlatformURL") ? platformObj.getString("PlatformURL") : "";
-                            platform.iconUrl = platformObj.has("IconURL") ? platformObj.getString("IconURL") : "";
+                            platform.platformUrl = "";
+                            platform.iconUrl = "";
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                switch (reader.nextName()) {
+                                    case "PlatformID" -> platform.platformId = reader.nextInt();
+                                    case "Name" -> platform.name = reader.nextString();
+                                    // Stored as an integer (0 = false, any other value = true)
+                                    case "APIAccessStatus" -> platform.apiAccessStatus = reader.nextBoolean();
+                                    case "PlatformURL" -> platform.platformUrl = Objects.requireNonNullElse(reader.nextStringOrNull(), "");
+                                    case "IconURL" -> platform.iconUrl = Objects.requireNonNullElse(reader.nextStringOrNull(), "");
+                                    default -> reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
                             platforms.add(platform);
                         }
+                        reader.endArray();
                         
                         result.platforms = platforms;
-                        SwingUtilities.invokeLater(() -> callback.accept(result));
+                        return result;
                     } catch (Exception e) {
                         System.out.println("DEBUG - PlatformService.getAllPlatforms - Exception parsing response: " + e.getMessage());
                         e.printStackTrace();
-                        SwingUtilities.invokeLater(() -> 
-                            callback.accept(new PlatformResult(false, "Failed to load platforms: " + e.getMessage())));
+                        return new PlatformResult(false, "Failed to load platforms: " + e.getMessage());
                     }
                 } else {
                     String errorMsg = "Failed to get platforms. Status code: " + responseCode;
@@ -113,15 +108,14 @@ public class PlatformService {
                         errorMsg += " - " + responseBodyStr;
                     }
                     final String finalErrorMsg = errorMsg;
-                    SwingUtilities.invokeLater(() -> callback.accept(new PlatformResult(false, finalErrorMsg)));
+                    return new PlatformResult(false, finalErrorMsg);
                 }
             } catch (Exception e) {
                 System.out.println("DEBUG - PlatformService.getAllPlatforms - Exception: " + e.getMessage());
                 e.printStackTrace();
-                SwingUtilities.invokeLater(() -> 
-                    callback.accept(new PlatformResult(false, "Error: " + e.getMessage())));
+                return new PlatformResult(false, "Error: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     /**
@@ -130,63 +124,64 @@ public class PlatformService {
      * @param callback Callback with platform IDs
      */
     public static void getPlatformsForPost(int postId, Consumer<List<Integer>> callback) {
+        ServiceExecutor.deliver(getPlatformsForPostAsync(postId), callback,
+            e -> new ArrayList<>());
+    }
+    
+    /**
+     * Async variant of getPlatformsForPost, run on the shared service executor
+     */
+    public static CompletableFuture<List<Integer>> getPlatformsForPostAsync(int postId) {
         System.out.println("DEBUG - PlatformService.getPlatformsForPost - Post ID: " + postId);
         
-        new Thread(() -> {
+        return ServiceExecutor.supplyAsync(() -> {
             try {
-                // Create connection
-                URL apiUrl = new URL(API_BASE_URL + "/posts/" + postId + "/platforms/");
-                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-                conn.setRequestMethod("GET");
+                // Send request through the shared client
+                ApiClient.Response response = ApiClient.get("/posts/" + postId + "/platforms/");
                 
                 // Get response
-                int responseCode = conn.getResponseCode();
+                int responseCode = response.statusCode;
                 System.out.println("DEBUG - PlatformService.getPlatformsForPost - Response code: " + responseCode);
                 
-                // Read response body
-                StringBuilder responseBody = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(
-                                responseCode >= 200 && responseCode < 300 
-                                ? conn.getInputStream() 
-                                : conn.getErrorStream()))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        responseBody.append(line);
-                    }
-                }
-                
-                String responseBodyStr = responseBody.toString();
+                String responseBodyStr = response.body;
                 System.out.println("DEBUG - PlatformService.getPlatformsForPost - Response body: " + responseBodyStr);
                 
                 // Process response
                 if (responseCode >= 200 && responseCode < 300) {
                     try {
                         List<Integer> platformIds = new ArrayList<>();
-                        JSONArray platformsArray = new JSONArray(responseBodyStr);
                         
                         // Extract platform IDs
-                        for (int i = 0; i < platformsArray.length(); i++) {
-                            JSONObject platformObj = platformsArray.getJSONObject(i);
-                            platformIds.add(platformObj.getInt("PlatformID"));
+                        JsonReader reader = new JsonReader(responseBodyStr);
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            reader.beginObject();
+                            if (reader.findField("PlatformID")) {
+                                platformIds.add(reader.nextInt());
+                                while (reader.hasNext()) {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
                         }
+                        reader.endArray();
                         
-                        SwingUtilities.invokeLater(() -> callback.accept(platformIds));
+                        return platformIds;
                     } catch (Exception e) {
                         System.out.println("DEBUG - PlatformService.getPlatformsForPost - Exception parsing response: " + e.getMessage());
                         e.printStackTrace();
-                        SwingUtilities.invokeLater(() -> callback.accept(new ArrayList<>()));
+                        return new ArrayList<>();
                     }
                 } else {
                     System.out.println("DEBUG - PlatformService.getPlatformsForPost - Error response: " + responseBodyStr);
-                    SwingUtilities.invokeLater(() -> callback.accept(new ArrayList<>()));
+                    return new ArrayList<>();
                 }
             } catch (Exception e) {
                 System.out.println("DEBUG - PlatformService.getPlatformsForPost - Exception: " + e.getMessage());
                 e.printStackTrace();
-                SwingUtilities.invokeLater(() -> callback.accept(new ArrayList<>()));
+                return new ArrayList<>();
             }
-        }).start();
+        });
     }
     
     /**
@@ -196,9 +191,17 @@ public class PlatformService {
      * @param callback Callback with success/failure
      */
     public static void updatePostPlatforms(int postId, List<Integer> platformIds, Consumer<Boolean> callback) {
+        ServiceExecutor.deliver(updatePostPlatformsAsync(postId, platformIds), callback,
+            e -> false);
+    }
+    
+    /**
+     * Async variant of updatePostPlatforms, run on the shared service executor
+     */
+    public static CompletableFuture<Boolean> updatePostPlatformsAsync(int postId, List<Integer> platformIds) {
         System.out.println("DEBUG - PlatformService.updatePostPlatforms - Post ID: " + postId + ", Platforms: " + platformIds);
         
-        new Thread(() -> {
+        return ServiceExecutor.supplyAsync(() -> {
             try {
                 // Create JSON payload
                 JSONObject payload = new JSONObject();
@@ -211,50 +214,26 @@ public class PlatformService {
                 
                 System.out.println("DEBUG - PlatformService.updatePostPlatforms - Request body: " + jsonBody);
                 
-                // Create connection
-                URL apiUrl = new URL(API_BASE_URL + "/posts/" + postId + "/platforms/");
-                HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-                conn.setRequestMethod("PUT");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setRequestProperty("Accept", "application/json");
-                conn.setDoOutput(true);
-                
-                // Send request body
-                try (OutputStream os = conn.getOutputStream()) {
-                    byte[] input = jsonBody.getBytes("utf-8");
-                    os.write(input, 0, input.length);
-                }
+                // Send request through the shared client
+                ApiClient.Response response = ApiClient.put("/posts/" + postId + "/platforms/", jsonBody);
                 
                 // Get response
-                int responseCode = conn.getResponseCode();
+                int responseCode = response.statusCode;
                 System.out.println("DEBUG - PlatformService.updatePostPlatforms - Response code: " + responseCode);
                 
-                // Read response body
-                StringBuilder responseBody = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(
-                                responseCode >= 200 && responseCode < 300 
-                                ? conn.getInputStream() 
-                                : conn.getErrorStream()))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        responseBody.append(line);
-                    }
-                }
-                
-                String responseBodyStr = responseBody.toString();
+                String responseBodyStr = response.body;
                 System.out.println("DEBUG - PlatformService.updatePostPlatforms - Response body: " + responseBodyStr);
                 
                 // Process response
                 boolean success = responseCode >= 200 && responseCode < 300;
-                SwingUtilities.invokeLater(() -> callback.accept(success));
+                return success;
                 
             } catch (Exception e) {
                 System.out.println("DEBUG - PlatformService.updatePostPlatforms - Exception: " + e.getMessage());
                 e.printStackTrace();
-                SwingUtilities.invokeLater(() -> callback.accept(false));
+                return false;
             }
-        }).start();
+        });
     }
     
     /**
@@ -264,29 +243,35 @@ public class PlatformService {
      * @param callback Callback with list of platform data
      */
     public static void getPlatformDataByIds(List<Integer> platformIds, Consumer<List<PlatformData>> callback) {
+        ServiceExecutor.deliver(getPlatformDataByIdsAsync(platformIds), callback,
+            e -> new ArrayList<>());
+    }
+    
+    /**
+     * Async variant of getPlatformDataByIds, composed on getAllPlatformsAsync
+     */
+    public static CompletableFuture<List<PlatformData>> getPlatformDataByIdsAsync(List<Integer> platformIds) {
         if (platformIds == null || platformIds.isEmpty()) {
-            SwingUtilities.invokeLater(() -> callback.accept(new ArrayList<>()));
-            return;
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
         
         System.out.println("DEBUG - PlatformService.getPlatformDataByIds - Platform IDs: " + platformIds);
         
         // Get all platforms and filter by IDs
-        getAllPlatforms(result -> {
+        return getAllPlatformsAsync().thenApply(result -> {
+            List<PlatformData> filteredPlatforms = new ArrayList<>();
             if (!result.success || result.platforms == null) {
-                SwingUtilities.invokeLater(() -> callback.accept(new ArrayList<>()));
-                return;
+                return filteredPlatforms;
             }
             
             // Filter platforms by ID
-            List<PlatformData> filteredPlatforms = new ArrayList<>();
             for (PlatformData platform : result.platforms) {
                 if (platformIds.contains(platform.platformId)) {
                     filteredPlatforms.add(platform);
                 }
             }
             
-            SwingUtilities.invokeLater(() -> callback.accept(filteredPlatforms));
+            return filteredPlatforms;
         });
     }
 }
\ No newline at end of file
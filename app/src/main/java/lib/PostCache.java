@@ -0,0 +1,439 @@
+package lib;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.json.JSONObject;
+
+/**
+ * On-disk cache of the post list and opened posts, used to fill the sidebar
+ * before the backend has answered.
+ *
+ * The cache is an append-only log of JSON lines keyed by PostID:
+ *   {"op":"put","id":..,"name":..}       - post summary added or renamed
+ *   {"op":"bundle","id":..,"bundle":".."} - full post with images and platform IDs,
+ *                                          as the JSON text the backend sent
+ *   {"op":"del","id":..}                  - post removed
+ *   {"op":"meta","sync":..,"cursor":..}   - sync marker and paging cursor
+ *   {"op":"clear"}                        - everything before this is obsolete
+ * Replaying the log rebuilds the in-memory state. When the log grows to more
+ * than twice the live records it is compacted into a fresh file on a service
+ * thread and swapped in atomically. A torn last line from a crash is skipped
+ * on replay.
+ *
+ * The summaries always cover a prefix of the post list ordered by PostID, the
+ * same pages the sidebar has loaded, so the stored cursor and sync marker can be
+ * handed straight back to PostListModel.
+ *
+ * The directory can be changed with the dimf.cache.dir system property
+ * (default ~/.dimf-autoposter). Cache failures are logged and never fail a call.
+ */
+public class PostCache {
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("dimf.cache.dir",
+            System.getProperty("user.home") + "/.dimf-autoposter"));
+    // One log per backend, so pointing the app at another server never mixes posts
+    private static final Path CACHE_FILE = CACHE_DIR.resolve(
+            "posts-" + Integer.toHexString(ApiClient.getApiBaseUrl().hashCode()) + ".log");
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    private static final TreeMap<Integer, String> names = new TreeMap<>();
+    private static final Map<Integer, String> bundles = new HashMap<>();
+    private static String syncMarker = null;
+    private static int nextCursor = 0;
+
+    // Guards everything below. Not a monitor: callers run on virtual threads, which
+    // a monitor would pin during the file writes
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private static boolean loaded = false;
+    private static boolean disabled = false;
+    private static int recordCount = 0;
+    private static BufferedWriter writer;
+    private static boolean compactionScheduled = false;
+    // Records appended while a compaction writes its snapshot, null when none is running
+    private static List<String> sinceSnapshot;
+
+    /**
+     * Get the cached post summaries with the cursor and sync marker they were read at
+     * @return The cached page, or null if there is nothing usable cached
+     */
+    public static PostService.PostPage getSummaries() {
+        lock.lock();
+        try {
+            ensureLoaded();
+            if (names.isEmpty() || syncMarker == null) {
+                return null;
+            }
+
+            PostService.PostPage page = new PostService.PostPage();
+            for (Map.Entry<Integer, String> entry : names.entrySet()) {
+                page.items.add(new PostService.PostSummary(entry.getKey(), entry.getValue()));
+            }
+            page.nextCursor = nextCursor;
+            page.serverTime = syncMarker;
+            return page;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the cached bundle for a post
+     * @param postId Post ID
+     * @return The bundle JSON text as returned by the backend, or null if not cached
+     */
+    public static String getBundle(int postId) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            return bundles.get(postId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record a page of summaries loaded from the backend
+     * @param cursor The cursor the page was requested with
+     * @param page The loaded page
+     */
+    public static void recordPage(int cursor, PostService.PostPage page) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            if (cursor == 0) {
+                // A first page starts a new snapshot; anything older can't be trusted against its marker
+                names.clear();
+                bundles.clear();
+                syncMarker = page.serverTime;
+                append(new JSONObject().put("op", "clear"));
+            } else if (cursor != nextCursor) {
+                // Not contiguous with what is cached, so the prefix would have a gap
+                return;
+            }
+
+            for (PostService.PostSummary post : page.items) {
+                names.put(post.postId, post.name);
+                append(new JSONObject().put("op", "put").put("id", post.postId).put("name", post.name));
+            }
+            nextCursor = page.nextCursor;
+            appendMeta();
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apply changes from a delta sync
+     * @param changes Changes since the cached sync marker
+     */
+    public static void recordChanges(PostService.PostChanges changes) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            for (Integer postId : changes.deleted) {
+                removeEntry(postId);
+            }
+
+            for (PostService.PostSummary post : changes.updated) {
+                // Cached bundles of changed posts are stale
+                if (bundles.remove(post.postId) != null) {
+                    append(new JSONObject().put("op", "del").put("id", post.postId));
+                }
+                // Posts past the cached pages are picked up by paging
+                if (nextCursor < 0 || post.postId <= nextCursor || names.containsKey(post.postId)) {
+                    names.put(post.postId, post.name);
+                    append(new JSONObject().put("op", "put").put("id", post.postId).put("name", post.name));
+                }
+            }
+
+            syncMarker = changes.serverTime;
+            appendMeta();
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record a full post loaded from the backend
+     * @param postId Post ID
+     * @param bundle The bundle JSON text as returned by the backend
+     */
+    public static void recordBundle(int postId, String bundle) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            bundles.put(postId, bundle);
+            append(new JSONObject().put("op", "bundle").put("id", postId).put("bundle", bundle));
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget a post that no longer exists on the backend
+     * @param postId Post ID
+     */
+    public static void remove(int postId) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            removeEntry(postId);
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void removeEntry(int postId) {
+        boolean removed = names.remove(postId) != null;
+        removed |= bundles.remove(postId) != null;
+        if (removed) {
+            append(new JSONObject().put("op", "del").put("id", postId));
+        }
+    }
+
+    /**
+     * Replay the log into memory on first use
+     */
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        boolean torn = false;
+        if (Files.exists(CACHE_FILE)) {
+            try (BufferedReader reader = Files.newBufferedReader(CACHE_FILE, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        replay(new JSONObject(line));
+                        recordCount++;
+                        torn = false;
+                    } catch (Exception e) {
+                        System.out.println("DEBUG - PostCache - Skipping unreadable record: " + e.getMessage());
+                        torn = true;
+                    }
+                }
+                System.out.println("DEBUG - PostCache - Loaded " + names.size() + " posts from " + CACHE_FILE);
+            } catch (IOException e) {
+                System.out.println("DEBUG - PostCache - Failed to read cache: " + e.getMessage());
+                names.clear();
+                bundles.clear();
+                syncMarker = null;
+                nextCursor = 0;
+            }
+        }
+
+        try {
+            Files.createDirectories(CACHE_DIR);
+            writer = Files.newBufferedWriter(CACHE_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (torn) {
+                // Start the next record on a fresh line rather than after a torn one
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            disable(e);
+        }
+
+        // A compacted copy also drops any torn record
+        scheduleCompaction();
+    }
+
+    /**
+     * Apply one log record to the in-memory state
+     */
+    private static void replay(JSONObject record) {
+        switch (record.getString("op")) {
+            case "put":
+                names.put(record.getInt("id"), record.getString("name"));
+                break;
+            case "bundle":
+                // Older logs hold the bundle as an object rather than its text
+                bundles.put(record.getInt("id"), String.valueOf(record.get("bundle")));
+                break;
+            case "del":
+                names.remove(record.getInt("id"));
+                bundles.remove(record.getInt("id"));
+                break;
+            case "meta":
+                syncMarker = record.optString("sync", null);
+                nextCursor = record.optInt("cursor", 0);
+                break;
+            case "clear":
+                names.clear();
+                bundles.clear();
+                syncMarker = null;
+                nextCursor = 0;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void appendMeta() {
+        JSONObject meta = new JSONObject().put("op", "meta").put("cursor", nextCursor);
+        if (syncMarker != null) {
+            meta.put("sync", syncMarker);
+        }
+        append(meta);
+    }
+
+    /**
+     * Append one record to the log
+     */
+    private static void append(JSONObject record) {
+        if (disabled || writer == null) {
+            return;
+        }
+        try {
+            String line = record.toString();
+            writer.write(line);
+            writer.newLine();
+            recordCount++;
+            if (sinceSnapshot != null) {
+                sinceSnapshot.add(line);
+            }
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * Flush pending records and compact the log if it has grown too large
+     */
+    private static void flush() {
+        if (disabled || writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            disable(e);
+            return;
+        }
+
+        int liveRecords = names.size() + bundles.size() + 1;
+        if (recordCount > COMPACT_MIN_RECORDS && recordCount > 2 * liveRecords) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Compact the log on a service thread, so callers never wait for the rewrite
+     */
+    private static void scheduleCompaction() {
+        if (disabled || compactionScheduled) {
+            return;
+        }
+        compactionScheduled = true;
+        ServiceExecutor.runAsync(PostCache::compact);
+    }
+
+    /**
+     * Rewrite the log with only the live records and switch to appending to it.
+     *
+     * The live records are copied under the lock and written to a temporary file
+     * outside it. Records appended in the meantime still go to the old log and are
+     * also added to the new one before it replaces the old log.
+     */
+    private static void compact() {
+        List<String> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            if (disabled) {
+                compactionScheduled = false;
+                return;
+            }
+            for (Map.Entry<Integer, String> entry : names.entrySet()) {
+                snapshot.add(new JSONObject().put("op", "put").put("id", entry.getKey()).put("name", entry.getValue()).toString());
+            }
+            for (Map.Entry<Integer, String> entry : bundles.entrySet()) {
+                snapshot.add(new JSONObject().put("op", "bundle").put("id", entry.getKey()).put("bundle", entry.getValue()).toString());
+            }
+            JSONObject meta = new JSONObject().put("op", "meta").put("cursor", nextCursor);
+            if (syncMarker != null) {
+                meta.put("sync", syncMarker);
+            }
+            snapshot.add(meta.toString());
+            sinceSnapshot = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Path tempFile = CACHE_DIR.resolve(CACHE_FILE.getFileName() + ".tmp");
+        IOException failure = null;
+        try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (String line : snapshot) {
+                out.write(line);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            if (disabled) {
+                return;
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+                for (String line : sinceSnapshot) {
+                    out.write(line);
+                    out.newLine();
+                }
+            }
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            Files.move(tempFile, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            recordCount = snapshot.size() + sinceSnapshot.size();
+            writer = Files.newBufferedWriter(CACHE_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            disable(e);
+        } finally {
+            sinceSnapshot = null;
+            compactionScheduled = false;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop writing after an I/O failure; the app keeps working from the network
+     */
+    private static void disable(IOException e) {
+        System.out.println("DEBUG - PostCache - Disabling cache: " + e.getMessage());
+        disabled = true;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+        }
+    }
+}
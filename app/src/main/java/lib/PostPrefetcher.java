@@ -0,0 +1,172 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Small cache of post bundles loaded ahead of time.
+ *
+ * The sidebar calls prefetch() when the pointer rests on a row, which starts
+ * loading that post's bundle and the thumbnails of its first images. When the
+ * keyboard selection moves, the selected row and its neighbours are loaded
+ * together with one bundles request. When the post is then opened, get() hands
+ * over the finished (or nearly finished) load instead of starting a new one.
+ * The handoff removes the entry, so the PostData the form goes on to edit is
+ * never handed out again; opening the post a second time loads it afresh.
+ *
+ * Entries expire after a short time and are dropped when the post is saved,
+ * deleted or reported changed by a sync, so a prefetched copy is never much
+ * older than a fresh load would be. The least recently used entries are
+ * evicted, and cancelled if still loading, when the cache is full.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.prefetch.entries     - posts kept (default 16)
+ *   dimf.prefetch.ttlSeconds  - how long a prefetched post is used (default 60)
+ */
+public class PostPrefetcher {
+    private static final int MAX_ENTRIES = Integer.getInteger("dimf.prefetch.entries", 16);
+    private static final long TTL_MS = Long.getLong("dimf.prefetch.ttlSeconds", 60) * 1000;
+    // Enough thumbnails to fill the visible part of the image panel
+    private static final int THUMBNAILS_PER_POST = 12;
+
+    private static class Entry {
+        final CompletableFuture<PostService.PostData> future;
+        final long createdAt = System.currentTimeMillis();
+
+        Entry(CompletableFuture<PostService.PostData> future) {
+            this.future = future;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - createdAt < TTL_MS;
+        }
+    }
+
+    // Access ordered, so iteration starts at the least recently used post
+    private static final Map<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Start loading a post in the background unless it is already cached
+     * @param postId Post ID
+     */
+    public static void prefetch(int postId) {
+        prefetch(List.of(postId));
+    }
+
+    /**
+     * Start loading several posts in the background, e.g. the rows around the
+     * keyboard selection. Posts that aren't cached yet are loaded with one
+     * bundles request.
+     * @param postIds Post IDs
+     */
+    public static void prefetch(List<Integer> postIds) {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (PostPrefetcher.class) {
+            List<Integer> missing = new ArrayList<>();
+            for (int postId : postIds) {
+                Entry existing = entries.get(postId);
+                if (postId > 0 && (existing == null || !existing.isFresh()) && !missing.contains(postId)) {
+                    missing.add(postId);
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            CompletableFuture<List<PostService.PostData>> bundles = missing.size() > 1
+                    ? PostService.loadPostBundlesAsync(missing)
+                    : null;
+            for (int postId : missing) {
+                Entry entry = new Entry(bundles != null
+                        ? bundles.thenApply(posts -> findPost(posts, postId))
+                        : PostService.loadPostBundleAsync(postId));
+                entries.put(postId, entry);
+
+                entry.future.whenComplete((postData, error) -> {
+                    if (error != null || postData == null) {
+                        // Let the next hover try again
+                        remove(postId, entry);
+                    } else {
+                        warmThumbnails(postData);
+                    }
+                });
+            }
+
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (entries.size() > MAX_ENTRIES && oldest.hasNext()) {
+                evicted.add(oldest.next());
+                oldest.remove();
+            }
+        }
+
+        for (Entry entry : evicted) {
+            entry.future.cancel(true);
+        }
+    }
+
+    /**
+     * Take a prefetched post out of the cache
+     * @param postId Post ID
+     * @return Future with the post, which may still be loading, or null if it has not been prefetched.
+     *         The caller owns the result; cancelling the future abandons the load.
+     */
+    public static CompletableFuture<PostService.PostData> get(int postId) {
+        Entry entry;
+        synchronized (PostPrefetcher.class) {
+            entry = entries.remove(postId);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.isFresh()) {
+            entry.future.cancel(true);
+            return null;
+        }
+
+        System.out.println("DEBUG - PostPrefetcher - Using prefetched post ID: " + postId
+                + (entry.future.isDone() ? "" : " (still loading)"));
+        return entry.future;
+    }
+
+    /**
+     * Drop a post whose cached copy is out of date
+     * @param postId Post ID
+     */
+    public static void invalidate(int postId) {
+        Entry entry;
+        synchronized (PostPrefetcher.class) {
+            entry = entries.remove(postId);
+        }
+        if (entry != null) {
+            entry.future.cancel(true);
+        }
+    }
+
+    private static synchronized void remove(int postId, Entry entry) {
+        entries.remove(postId, entry);
+    }
+
+    private static PostService.PostData findPost(List<PostService.PostData> posts, int postId) {
+        for (PostService.PostData post : posts) {
+            if (post.postId == postId) {
+                return post;
+            }
+        }
+        // Deleted since the list was loaded
+        return null;
+    }
+
+    /**
+     * Start the thumbnail loads so the images show from the memory cache when the post opens
+     */
+    private static void warmThumbnails(PostService.PostData postData) {
+        int count = Math.min(THUMBNAILS_PER_POST, postData.images.size());
+        for (int i = 0; i < count; i++) {
+            ThumbnailService.loadThumbnail(postData.images.get(i).url);
+        }
+    }
+}
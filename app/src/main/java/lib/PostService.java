@@ -1,14 +1,21 @@
 package lib;
 
-import javax.swing.*;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -19,7 +26,9 @@ import lib.UserService;
  * Service class to handle all post-related operations
  */
 public class PostService {
-    private static final String API_BASE_URL = "http://localhost:8000/api";
+    private static final Duration AI_TIMEOUT = Duration.ofMinutes(3);
+    // Longest gap between two lines of a streamed generation before it counts as stalled
+    private static final Duration AI_STREAM_IDLE_TIMEOUT = Duration.ofSeconds(60);
     
     /**
      * Data class to hold post information
@@ -33,6 +42,7 @@ public class PostService {
         public int creatorUserId = -1;
         public List<Integer> platformIds = new ArrayList<>();
         public List<String> imagePaths = new ArrayList<>();
+        public List<ImageService.ImageData> images = new ArrayList<>();
         
         // Search/AI cache information
         public String lastQuery = null;
@@ -53,203 +63,370 @@ public class PostService {
      * @return The API base URL
      */
     public static String getApiBaseUrl() {
-        return API_BASE_URL;
+        return ApiClient.getApiBaseUrl();
     }
     
     /**
-     * Load all posts into the provided model
-     * @param model The list model to populate with post names
+     * Lightweight entry for the sidebar list: the ID used to open the post
+     * and the name shown to the user
      */
-    public static void loadPosts(DefaultListModel<String> model) {
-        try {
-            URL url = new URL(API_BASE_URL + "/posts");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            
-            // Add auth token from UserService
-            String token = UserService.getCurrentToken();
-            if (token != null && !token.isEmpty()) {
-                conn.setRequestProperty("Authorization", "Bearer " + token);
-            }
-            
-            BufferedReader in = new BufferedReader(
-                    new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String inputLine;
-            while ((inputLine = in.readLine()) != null)
-                response.append(inputLine);
-            in.close();
-            
-            JSONArray posts = new JSONArray(response.toString());
-            model.clear();
-            for (int i = 0; i < posts.length(); i++) {
-                JSONObject post = posts.getJSONObject(i);
-                model.addElement(post.getString("Name")); // or "PostID"
-            }
-        } catch (Exception e) {
-            model.addElement("Failed to load posts");
-            e.printStackTrace();
+    public static class PostSummary {
+        public final int postId;
+        public final String name;
+        
+        public PostSummary(int postId, String name) {
+            this.postId = postId;
+            this.name = name;
+        }
+        
+        @Override
+        public String toString() {
+            return name;
         }
     }
     
     /**
-     * Load a post by its name
-     * @param name Name of the post to load
-     * @param callback Callback to receive the post data
+     * One page of sidebar entries and the cursor for the next page
      */
-    public static void loadPostByName(String name, Consumer<PostData> callback) {
-        SwingWorker<PostData, Void> loadWorker = new SwingWorker<>() {
-            @Override
-            protected PostData doInBackground() {
-                try {
-                    // First get all posts to find the one with matching name
-                    URL getUrl = new URL(API_BASE_URL + "/posts/");
-                    HttpURLConnection getConn = (HttpURLConnection) getUrl.openConnection();
-                    getConn.setRequestMethod("GET");
-                    getConn.setRequestProperty("Accept", "application/json");
-                    
-                    // Add auth token from UserService
-                    String token = UserService.getCurrentToken();
-                    if (token != null && !token.isEmpty()) {
-                        getConn.setRequestProperty("Authorization", "Bearer " + token);
-                    }
-                    
-                    BufferedReader in = new BufferedReader(new InputStreamReader(getConn.getInputStream()));
-                    StringBuilder getResponse = new StringBuilder();
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        getResponse.append(line);
+    public static class PostPage {
+        public List<PostSummary> items = new ArrayList<>();
+        public int nextCursor = -1; // -1 when there are no more pages
+        public String serverTime; // Sync marker for loadPostChangesAsync
+        
+        public boolean hasMore() {
+            return nextCursor >= 0;
+        }
+    }
+    
+    /**
+     * Load one page of post summaries, ordered by post ID
+     * @param cursor Post ID to continue after (0 for the first page)
+     * @param limit Maximum number of posts in the page
+     * @return Future with the page; fails if the request fails
+     */
+    public static CompletableFuture<PostPage> loadPostPageAsync(int cursor, int limit) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                ApiClient.Response response = ApiClient.get("/posts/page?cursor=" + cursor + "&limit=" + limit);
+                if (!response.isSuccess()) {
+                    throw new Exception("HTTP Error: " + response.statusCode + " - " + response.body);
+                }
+                
+                PostPage page = new PostPage();
+                JsonReader reader = new JsonReader(response.body);
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "items" -> readSummaries(reader, page.items);
+                        case "next_cursor" -> page.nextCursor = reader.nextIntOrDefault(-1);
+                        case "server_time" -> page.serverTime = reader.nextStringOrNull();
+                        default -> reader.skipValue();
                     }
-                    in.close();
-                    
-                    JSONArray posts = new JSONArray(getResponse.toString());
-                    
-                    // Find the post with matching name
-                    for (int i = 0; i < posts.length(); i++) {
-                        JSONObject post = posts.getJSONObject(i);
-                        if (post.getString("Name").equals(name)) {
-                            // Found the post, create PostData object
-                            PostData postData = new PostData();
-                            postData.postId = post.getInt("PostID");
-                            postData.name = post.getString("Name");
-                            postData.dateOfDeath = post.getString("DateOfDeath");
-                            postData.content = post.has("Content") ? post.getString("Content") : "";
-                            
-                            // Get creator information
-                            if (post.has("CreatedBy") && !post.isNull("CreatedBy")) {
-                                postData.creatorUserId = post.getInt("CreatedBy");
-                            }
-                            
-                            if (post.has("CreatorUsername") && !post.isNull("CreatorUsername")) {
-                                postData.creatorUsername = post.getString("CreatorUsername");
+                }
+                reader.endObject();
+                
+                PostCache.recordPage(cursor, page);
+                return page;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+    
+    /**
+     * Read the post summaries saved by the last session
+     * @return Future with the cached page (including its cursor and sync marker), or null if nothing is cached
+     */
+    public static CompletableFuture<PostPage> loadCachedPostsAsync() {
+        return ServiceExecutor.supplyAsync(PostCache::getSummaries);
+    }
+    
+    /**
+     * Load at least the first minCount post summaries, one page after another
+     * @param minCount Number of posts the caller already shows
+     * @param pageSize Page size to request
+     * @return Future with every loaded summary and the cursor after the last one
+     */
+    public static CompletableFuture<PostPage> loadPostRangeAsync(int minCount, int pageSize) {
+        return ServiceExecutor.supplyAsync(() -> {
+            PostPage range = new PostPage();
+            int cursor = 0;
+            do {
+                PostPage page = loadPostPageAsync(cursor, pageSize).join();
+                if (range.serverTime == null) {
+                    // The first page's marker covers everything read after it
+                    range.serverTime = page.serverTime;
+                }
+                range.items.addAll(page.items);
+                range.nextCursor = page.nextCursor;
+                cursor = page.nextCursor;
+            } while (range.hasMore() && range.items.size() < minCount);
+            return range;
+        });
+    }
+    
+    /**
+     * Posts created, updated or deleted since a sync marker
+     */
+    public static class PostChanges {
+        public List<PostSummary> updated = new ArrayList<>();
+        public List<Integer> deleted = new ArrayList<>();
+        public String serverTime; // Marker to pass to the next sync
+    }
+    
+    /**
+     * Load the changes to the post list since the last sync
+     * @param since Server time returned by the previous page load or sync
+     * @return Future with the changes; fails if the request fails
+     */
+    public static CompletableFuture<PostChanges> loadPostChangesAsync(String since) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                String query = java.net.URLEncoder.encode(since, "UTF-8");
+                ApiClient.Response response = ApiClient.get("/posts/changes?updated_since=" + query);
+                if (!response.isSuccess()) {
+                    throw new Exception("HTTP Error: " + response.statusCode + " - " + response.body);
+                }
+                
+                PostChanges changes = new PostChanges();
+                JsonReader reader = new JsonReader(response.body);
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "updated" -> readSummaries(reader, changes.updated);
+                        case "deleted" -> {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                changes.deleted.add(reader.nextInt());
                             }
-                            
-                            // Load images
-                            loadPostImages(postData);
-                            
-                            // Load platforms
-                            loadPostPlatforms(postData);
-                            
-                            return postData;
+                            reader.endArray();
                         }
+                        case "server_time" -> changes.serverTime = reader.nextString();
+                        default -> reader.skipValue();
                     }
-                    
-                    // Post not found
-                    return null;
-                    
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    return null;
                 }
+                reader.endObject();
+                
+                if (changes.serverTime == null) {
+                    throw new Exception("Invalid response format from changes API: missing server_time");
+                }
+                
+                PostCache.recordChanges(changes);
+                for (PostSummary post : changes.updated) {
+                    PostPrefetcher.invalidate(post.postId);
+                }
+                for (Integer postId : changes.deleted) {
+                    PostPrefetcher.invalidate(postId);
+                }
+                return changes;
+            } catch (Exception e) {
+                throw new CompletionException(e);
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    PostData result = get();
-                    callback.accept(result);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    callback.accept(null);
+        });
+    }
+    
+    /**
+     * Read an array of post rows into summaries, skipping every column but the ID and name
+     * @param reader Reader positioned at the array
+     * @param summaries List to add the summaries to
+     */
+    private static void readSummaries(JsonReader reader, List<PostSummary> summaries) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int postId = -1;
+            String name = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "PostID" -> postId = reader.nextInt();
+                    case "Name" -> name = reader.nextString();
+                    default -> reader.skipValue();
                 }
             }
-        };
+            reader.endObject();
+            summaries.add(new PostSummary(postId, name));
+        }
+        reader.endArray();
+    }
+    
+    /**
+     * Apply a set of changes to a list of summaries ordered by post ID
+     * @param current The loaded summaries, ordered by post ID
+     * @param changes Changes since the last sync
+     * @param lastLoadedId Highest post ID covered by the loaded pages, or -1 if every page is loaded;
+     *                     new posts above it are left for paging to pick up
+     * @return A new list with deleted posts removed, renamed posts replaced and new posts inserted
+     */
+    public static List<PostSummary> reconcile(List<PostSummary> current, PostChanges changes, int lastLoadedId) {
+        TreeMap<Integer, PostSummary> byId = new TreeMap<>();
+        for (PostSummary post : current) {
+            byId.put(post.postId, post);
+        }
+        
+        for (Integer postId : changes.deleted) {
+            byId.remove(postId);
+        }
+        
+        for (PostSummary post : changes.updated) {
+            if (lastLoadedId < 0 || post.postId <= lastLoadedId || byId.containsKey(post.postId)) {
+                byId.put(post.postId, post);
+            }
+        }
         
-        loadWorker.execute();
+        return new ArrayList<>(byId.values());
     }
     
     /**
-     * Load images for a post
-     * @param postData Post data object to populate with images
+     * Load a post by its ID
+     * @param postId ID of the post to load
+     * @param callback Callback to receive the post data, or null if it could not be loaded
      */
-    private static void loadPostImages(PostData postData) {
-        try {
-            URL url = new URL(API_BASE_URL + "/posts/" + postData.postId + "/images/");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            
-            // Add auth token
-            String token = UserService.getCurrentToken();
-            if (token != null && !token.isEmpty()) {
-                conn.setRequestProperty("Authorization", "Bearer " + token);
+    public static void loadPostById(int postId, Consumer<PostData> callback) {
+        ServiceExecutor.deliver(loadPostByIdAsync(postId), callback, e -> null);
+    }
+    
+    /**
+     * Async variant of loadPostById, run on the shared service executor.
+     * The post comes back as one bundle with its images and platforms embedded.
+     */
+    public static CompletableFuture<PostData> loadPostByIdAsync(int postId) {
+        return loadPostBundleAsync(postId);
+    }
+    
+    /**
+     * Load a post bundle (post, images and platform IDs) in a single request
+     * @param postId ID of the post to load
+     * @return Future with the post data, or null if it was not found or could not be loaded
+     */
+    public static CompletableFuture<PostData> loadPostBundleAsync(int postId) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                ApiClient.Response response = ApiClient.get("/posts/" + postId + "/bundle");
+                if (response.statusCode == 404) {
+                    // Post not found
+                    PostCache.remove(postId);
+                    return null;
+                }
+                if (!response.isSuccess()) {
+                    throw new Exception("HTTP Error: " + response.statusCode + " - " + response.body);
+                }
+                
+                PostData postData = parseBundle(response.body);
+                PostCache.recordBundle(postId, response.body);
+                return postData;
+                
+            } catch (InterruptedException e) {
+                // Cancelled, e.g. because another post was opened; nobody is waiting for the result
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                e.printStackTrace();
+                
+                // Fall back to the last copy we saw, e.g. while the backend is unreachable
+                String cached = PostCache.getBundle(postId);
+                return cached != null ? parseBundle(cached) : null;
             }
-            
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) {
-                response.append(line);
+        });
+    }
+    
+    /**
+     * Load bundles for several posts in a single request
+     * @param postIds IDs of the posts to load
+     * @return Future with the posts in the requested order; posts that no longer exist are left out.
+     *         Fails if the posts could not be loaded.
+     */
+    public static CompletableFuture<List<PostData>> loadPostBundlesAsync(List<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        
+        return ServiceExecutor.supplyAsync(() -> {
+            List<PostData> bundles = new ArrayList<>();
+            try {
+                JSONObject requestObj = new JSONObject();
+                requestObj.put("post_ids", new JSONArray(postIds));
+                
+                ApiClient.Response response = ApiClient.post("/posts/bundles", requestObj.toString());
+                if (!response.isSuccess()) {
+                    throw new Exception("HTTP Error: " + response.statusCode + " - " + response.body);
+                }
+                
+                JsonReader reader = new JsonReader(response.body);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String bundle = reader.nextSource();
+                    PostData postData = parseBundle(bundle);
+                    PostCache.recordBundle(postData.postId, bundle);
+                    bundles.add(postData);
+                }
+                reader.endArray();
+            } catch (Exception e) {
+                throw new CompletionException(e);
             }
-            in.close();
-            
-            JSONArray images = new JSONArray(response.toString());
-            postData.imagePaths.clear();
-            
-            for (int i = 0; i < images.length(); i++) {
-                JSONObject image = images.getJSONObject(i);
-                postData.imagePaths.add(image.getString("URL"));
+            return bundles;
+        });
+    }
+    
+    /**
+     * Build a PostData object from a post bundle, including images and platforms
+     * @param bundle Bundle JSON text
+     * @return Fully populated post data
+     */
+    private static PostData parseBundle(String bundle) {
+        PostData postData = new PostData();
+        JsonReader reader = new JsonReader(bundle);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "PostID" -> postData.postId = reader.nextInt();
+                case "Name" -> postData.name = reader.nextString();
+                case "DateOfDeath" -> postData.dateOfDeath = reader.nextString();
+                case "Content" -> postData.content = Objects.requireNonNullElse(reader.nextStringOrNull(), "");
+                // Creator information
+                case "CreatedBy" -> postData.creatorUserId = reader.nextIntOrDefault(-1);
+                case "CreatorUsername" -> postData.creatorUsername = reader.nextStringOrNull();
+                case "images" -> readBundleImages(reader, postData);
+                case "platform_ids" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        postData.platformIds.add(reader.nextInt());
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
             }
-            
-        } catch (Exception e) {
-            System.out.println("Error loading images: " + e.getMessage());
         }
+        reader.endObject();
+        
+        if (postData.postId <= 0) {
+            throw new JsonReader.SyntaxException("Post bundle without a PostID");
+        }
+        ImageIdIndex.putAll(postData.images);
+        return postData;
     }
     
     /**
-     * Load platforms for a post
-     * @param postData Post data object to populate with platforms
+     * Read the images array of a bundle into the post's images and image paths
      */
-    private static void loadPostPlatforms(PostData postData) {
-        try {
-            URL url = new URL(API_BASE_URL + "/posts/" + postData.postId + "/platforms/");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            
-            // Add auth token
-            String token = UserService.getCurrentToken();
-            if (token != null && !token.isEmpty()) {
-                conn.setRequestProperty("Authorization", "Bearer " + token);
-            }
-            
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) {
-                response.append(line);
-            }
-            in.close();
-            
-            JSONArray platforms = new JSONArray(response.toString());
-            postData.platformIds.clear();
-            
-            for (int i = 0; i < platforms.length(); i++) {
-                JSONObject platform = platforms.getJSONObject(i);
-                postData.platformIds.add(platform.getInt("PlatformID"));
+    private static void readBundleImages(JsonReader reader, PostData postData) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            ImageService.ImageData image = new ImageService.ImageData();
+            image.source = "";
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "ImageID" -> image.imageId = reader.nextInt();
+                    case "URL" -> image.url = reader.nextString();
+                    case "Source" -> image.source = Objects.requireNonNullElse(reader.nextStringOrNull(), "");
+                    default -> reader.skipValue();
+                }
             }
-            
-        } catch (Exception e) {
-            System.out.println("Error loading platforms: " + e.getMessage());
+            reader.endObject();
+            postData.images.add(image);
+            postData.imagePaths.add(image.url);
         }
+        reader.endArray();
     }
     
     /**
@@ -262,6 +439,13 @@ public class PostService {
         PlatformService.getPlatformsForPost(postId, callback);
     }
     
+    /**
+     * Async variant of getPostPlatforms - delegates to PlatformService
+     */
+    public static CompletableFuture<List<Integer>> getPostPlatformsAsync(int postId) {
+        return PlatformService.getPlatformsForPostAsync(postId);
+    }
+    
     /**
      * Update platforms for a post - delegates to PlatformService
      * @param postId Post ID
@@ -273,6 +457,13 @@ public class PostService {
         PlatformService.updatePostPlatforms(postId, platformIds, callback);
     }
     
+    /**
+     * Async variant of updatePostPlatforms - delegates to PlatformService
+     */
+    public static CompletableFuture<Boolean> updatePostPlatformsAsync(int postId, List<Integer> platformIds) {
+        return PlatformService.updatePostPlatformsAsync(postId, platformIds);
+    }
+    
     /**
      * Generate post content using search and AI
      * @param name Name
@@ -280,73 +471,116 @@ public class PostService {
      * @param callback Callback to receive the generated content
      */
     public static void generatePostContent(String name, String dod, Consumer<String> callback) {
-        SwingWorker<String, Void> worker = new SwingWorker<>() {
-            @Override
-            protected String doInBackground() {
-                try {
-                    String query = java.net.URLEncoder.encode(name + " " + dod, "UTF-8");
-                    URL getUrl = new URL(API_BASE_URL + "/google/search?q=" + query);
-                    HttpURLConnection getConn = (HttpURLConnection) getUrl.openConnection();
-                    getConn.setRequestMethod("GET");
-                    getConn.setRequestProperty("Accept", "application/json");
-                    
-                    // Add auth token from UserService
-                    String token = UserService.getCurrentToken();
-                    if (token != null && !token.isEmpty()) {
-                        getConn.setRequestProperty("Authorization", "Bearer " + token);
-                    }
-
-                    int responseCode = getConn.getResponseCode();
-                    
-                    if (responseCode != 200) {
-                        BufferedReader errorReader = new BufferedReader(
-                            new InputStreamReader(getConn.getErrorStream()));
-                        StringBuilder errorResponse = new StringBuilder();
-                        String errorLine;
-                        while ((errorLine = errorReader.readLine()) != null) {
-                            errorResponse.append(errorLine);
-                        }
-                        errorReader.close();
-                        throw new Exception("HTTP Error: " + responseCode + " - " + errorResponse.toString());
-                    }
-
-                    BufferedReader in = new BufferedReader(new InputStreamReader(getConn.getInputStream()));
-                    StringBuilder getResponse = new StringBuilder();
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        getResponse.append(line);
-                    }
-                    in.close();
-
-                    String getJson = getResponse.toString();
-                    // Check if the response contains the expected data
-                    if (getJson.contains("\"q\":\"") && getJson.contains("\"summary\":\"")) {
-                        String lastQuery = getJson.split("\\\"q\\\":\\\"")[1].split("\\\"", 2)[0];
-                        String lastSummary = getJson.split("\"summary\":\"")[1].replaceAll("\\\\n", "\n").replaceAll("\"}$", "");
-                        
-                        return generateFromLLM(lastQuery, lastSummary);
-                    } else {
-                        throw new Exception("Invalid response format from search API: " + getJson);
-                    }
-
-                } catch (Exception e) {
-                    return "Error: " + e.getMessage();
+        ServiceExecutor.deliver(generatePostContentAsync(name, dod), callback,
+            e -> "Error: " + e.getMessage());
+    }
+    
+    /**
+     * Async variant of generatePostContent, run on the shared service executor
+     */
+    public static CompletableFuture<String> generatePostContentAsync(String name, String dod) {
+        return generatePostContentAsync(name, dod, false);
+    }
+    
+    /**
+     * Generate post content, reusing the cached draft for this veteran unless a new variant is asked for
+     * @param name Name
+     * @param dod Date of death string
+     * @param newVariant Write a new draft even if one is cached; the cached search is still reused
+     * @return Future with the generated content, or "Error: ..." if generation failed
+     */
+    public static CompletableFuture<String> generatePostContentAsync(String name, String dod, boolean newVariant) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                String cached = newVariant ? null : GenerationCache.getDraft(name, dod);
+                if (cached != null) {
+                    System.out.println("DEBUG - PostService.generatePostContent - Using cached draft for: " + name);
+                    return cached;
                 }
+                
+                String[] search = searchVeteran(name, dod);
+                String content = generateFromLLM(search[0], search[1]);
+                GenerationCache.putDraft(name, dod, content);
+                return content;
+            } catch (Exception e) {
+                return "Error: " + e.getMessage();
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    String result = get();
-                    callback.accept(result);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    callback.accept("Error: " + e.getMessage());
+        });
+    }
+    
+    /**
+     * Generate post content, handing the text to a listener as the model writes it
+     * @param name Name
+     * @param dod Date of death string
+     * @param onDelta Receives each new piece of text, in order, on a background thread
+     * @return Future with the full generated content, or "Error: ..." like generatePostContentAsync
+     */
+    public static CompletableFuture<String> generatePostContentStreamingAsync(String name, String dod,
+            Consumer<String> onDelta) {
+        return generatePostContentStreamingAsync(name, dod, false, onDelta);
+    }
+    
+    /**
+     * Streaming variant of generatePostContentAsync(name, dod, newVariant).
+     * A cached draft is handed to the listener in one piece.
+     */
+    public static CompletableFuture<String> generatePostContentStreamingAsync(String name, String dod,
+            boolean newVariant, Consumer<String> onDelta) {
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                String cached = newVariant ? null : GenerationCache.getDraft(name, dod);
+                if (cached != null) {
+                    System.out.println("DEBUG - PostService.generatePostContent - Using cached draft for: " + name);
+                    onDelta.accept(cached);
+                    return cached;
                 }
+                
+                String[] search = searchVeteran(name, dod);
+                String content = generateFromLLMStream(search[0], search[1], onDelta);
+                GenerationCache.putDraft(name, dod, content);
+                return content;
+            } catch (Exception e) {
+                return "Error: " + e.getMessage();
             }
-        };
+        });
+    }
+    
+    /**
+     * Search for a veteran to give the LLM something to write from, reusing a cached search
+     * @return The query and summary returned by the search API
+     */
+    private static String[] searchVeteran(String name, String dod) throws Exception {
+        GenerationCache.Entry cached = GenerationCache.get(name, dod);
+        if (cached != null) {
+            System.out.println("DEBUG - PostService.searchVeteran - Using cached search for: " + name);
+            return new String[] { cached.query, cached.summary };
+        }
+        
+        String query = java.net.URLEncoder.encode(name + " " + dod, "UTF-8");
+        ApiClient.Response response = ApiClient.get("/google/search?q=" + query);
+        
+        if (response.statusCode != 200) {
+            throw new Exception("HTTP Error: " + response.statusCode + " - " + response.body);
+        }
 
-        worker.execute();
+        String lastQuery = null;
+        String lastSummary = null;
+        JsonReader reader = new JsonReader(response.body);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "q" -> lastQuery = reader.nextStringOrNull();
+                case "summary" -> lastSummary = reader.nextStringOrNull();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        if (lastQuery == null || lastSummary == null) {
+            throw new Exception("Invalid response format from search API: " + response.body);
+        }
+        GenerationCache.putSearch(name, dod, lastQuery, lastSummary);
+        return new String[] { lastQuery, lastSummary };
     }
     
     /**
@@ -356,60 +590,154 @@ public class PostService {
      * @return Generated content
      */
     private static String generateFromLLM(String query, String summary) throws Exception {
-        URL postUrl = new URL(API_BASE_URL + "/ai/");
-        HttpURLConnection postConn = (HttpURLConnection) postUrl.openConnection();
-        postConn.setRequestMethod("POST");
-        postConn.setRequestProperty("Content-Type", "application/json");
-        postConn.setDoOutput(true);
-        
-        // Add auth token from UserService
-        String token = UserService.getCurrentToken();
-        if (token != null && !token.isEmpty()) {
-            postConn.setRequestProperty("Authorization", "Bearer " + token);
-        }
-
         // Properly escape JSON values
         String escapedQuery = escapeJson(query);
         String escapedSummary = escapeJson(summary);
         
         String postBody = String.format("{\"q\":\"%s\", \"summary\":\"%s\"}", escapedQuery, escapedSummary);
         
-        try (OutputStream os = postConn.getOutputStream()) {
-            byte[] input = postBody.getBytes("utf-8");
-            os.write(input, 0, input.length);
+        // Generation can take much longer than a regular request
+        ApiClient.Response postResponse = ApiClient.send("POST", "/ai/", postBody, AI_TIMEOUT);
+        
+        if (postResponse.statusCode != 200) {
+            throw new Exception("AI API Error: " + postResponse.statusCode + " - " + postResponse.body);
         }
 
-        int responseCode = postConn.getResponseCode();
+        JsonReader reader = new JsonReader(postResponse.body);
+        reader.beginObject();
+        if (!reader.findField("response") || reader.peek() != JsonReader.Token.STRING) {
+            throw new Exception("Invalid response format from AI API: " + postResponse.body);
+        }
+        return reader.nextString();
+    }
+    
+    /**
+     * Generate post content from the LLM's streaming endpoint, one JSON object per line:
+     * {"delta": ...} pieces of text, then {"done": true} or {"error": ...}
+     *
+     * The lines are read on a separate task so a stalled stream can be given up
+     * on: it fails when nothing arrives for AI_STREAM_IDLE_TIMEOUT, or when the
+     * whole stream takes longer than AI_TIMEOUT.
+     * @param query Search query
+     * @param summary Search summary
+     * @param onDelta Receives each piece of text as it arrives
+     * @return Generated content
+     */
+    private static String generateFromLLMStream(String query, String summary, Consumer<String> onDelta) throws Exception {
+        String postBody = String.format("{\"q\":\"%s\", \"summary\":\"%s\"}", escapeJson(query), escapeJson(summary));
         
-        if (responseCode != 200) {
-            BufferedReader errorReader = new BufferedReader(
-                new InputStreamReader(postConn.getErrorStream()));
-            StringBuilder errorResponse = new StringBuilder();
-            String errorLine;
-            while ((errorLine = errorReader.readLine()) != null) {
-                errorResponse.append(errorLine);
+        HttpResponse<Stream<String>> response = ApiClient.sendForLines("POST", "/ai/stream", postBody, AI_TIMEOUT);
+        if (response.statusCode() == 404) {
+            // Backend without streaming; fall back to the whole text at once
+            response.body().close();
+            String content = generateFromLLM(query, summary);
+            onDelta.accept(content);
+            return content;
+        }
+        
+        if (response.statusCode() != 200) {
+            try (Stream<String> lines = response.body()) {
+                throw new Exception("AI API Error: " + response.statusCode() + " - " + String.join("\n", lines.toList()));
             }
-            errorReader.close();
-            throw new Exception("AI API Error: " + responseCode + " - " + errorResponse.toString());
         }
-
-        BufferedReader reader = new BufferedReader(new InputStreamReader(postConn.getInputStream(), "utf-8"));
-        StringBuilder postResponse = new StringBuilder();
-        String postLine;
-        while ((postLine = reader.readLine()) != null) {
-            postResponse.append(postLine);
+        
+        // The reading task owns the stream and closes it, also when it is cancelled; if it is
+        // cancelled before it starts, the stream is closed here instead. Closing gives back
+        // the endpoint permit.
+        AtomicLong lastLineAt = new AtomicLong(System.nanoTime());
+        AtomicBoolean handedOver = new AtomicBoolean();
+        CompletableFuture<String> reading = ServiceExecutor.supplyAsync(() -> {
+            if (!handedOver.compareAndSet(false, true)) {
+                return null;
+            }
+            try (Stream<String> lines = response.body()) {
+                return readLLMStream(lines, onDelta, lastLineAt);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        
+        long startedAt = System.nanoTime();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                long idleLeft = lastLineAt.get() + AI_STREAM_IDLE_TIMEOUT.toNanos() - now;
+                long totalLeft = startedAt + AI_TIMEOUT.toNanos() - now;
+                if (idleLeft <= 0 || totalLeft <= 0) {
+                    // Interrupts the blocked read, which aborts the response
+                    abandonStream(reading, handedOver, response);
+                    throw new Exception(idleLeft <= 0
+                        ? "AI stream stalled: nothing received for " + AI_STREAM_IDLE_TIMEOUT.toSeconds() + " seconds"
+                        : "AI stream did not finish within " + AI_TIMEOUT.toMinutes() + " minutes");
+                }
+                try {
+                    return reading.get(Math.min(idleLeft, totalLeft), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Check again; a line may have arrived in the meantime
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = ServiceExecutor.unwrap(e.getCause());
+            throw cause instanceof Exception ? (Exception) cause : new Exception(cause);
+        } catch (InterruptedException e) {
+            // The generation was cancelled
+            abandonStream(reading, handedOver, response);
+            throw e;
         }
-
-        String response = postResponse.toString();
-        if (response.contains("\"response\":\"")) {
-            return response
-                    .replace("{\"response\":\"", "")
-                    .replaceAll("\"}$", "")
-                    .replace("\\n", "\n")
-                    .replace("\\\"", "\"");
-        } else {
-            throw new Exception("Invalid response format from AI API: " + response);
+    }
+    
+    /**
+     * Cancel the task reading a stream, closing the stream if the task never got to it
+     */
+    private static void abandonStream(CompletableFuture<String> reading, AtomicBoolean handedOver,
+            HttpResponse<Stream<String>> response) {
+        reading.cancel(true);
+        if (handedOver.compareAndSet(false, true)) {
+            response.body().close();
+        }
+    }
+    
+    /**
+     * Read the events of a streamed generation until it is done
+     * @param lines Body lines of the stream
+     * @param onDelta Receives each piece of text as it arrives
+     * @param lastLineAt Set to System.nanoTime() whenever a line arrives
+     * @return Generated content
+     */
+    private static String readLLMStream(Stream<String> lines, Consumer<String> onDelta, AtomicLong lastLineAt)
+            throws Exception {
+        StringBuilder content = new StringBuilder();
+        Iterator<String> events = lines.iterator();
+        while (events.hasNext()) {
+            String line = events.next();
+            lastLineAt.set(System.nanoTime());
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            String delta = null;
+            boolean done = false;
+            JsonReader event = new JsonReader(line);
+            event.beginObject();
+            while (event.hasNext()) {
+                switch (event.nextName()) {
+                    case "error" -> throw new Exception(event.nextString());
+                    case "done" -> done = event.nextBoolean();
+                    case "delta" -> delta = event.nextStringOrNull();
+                    default -> event.skipValue();
+                }
+            }
+            event.endObject();
+            
+            if (done) {
+                return content.toString().trim();
+            }
+            if (delta != null && !delta.isEmpty()) {
+                content.append(delta);
+                onDelta.accept(delta);
+            }
         }
+        throw new Exception("AI stream ended before the post was finished");
     }
     
     /**
@@ -418,6 +746,18 @@ public class PostService {
      * @param callback Callback with success/failure message
      */
     public static void savePost(PostData postData, Consumer<SaveResult> callback) {
+        ServiceExecutor.deliver(savePostAsync(postData), callback, e -> {
+            SaveResult result = new SaveResult();
+            result.success = false;
+            result.message = "Error: " + e.getMessage();
+            return result;
+        });
+    }
+    
+    /**
+     * Async variant of savePost, run on the shared service executor
+     */
+    public static CompletableFuture<SaveResult> savePostAsync(PostData postData) {
         System.out.println("DEBUG - PostService.savePost - Post ID: " + postData.postId);
         System.out.println("DEBUG - PostService.savePost - Image Paths: " + postData.imagePaths);
         
@@ -435,216 +775,131 @@ public class PostService {
             postData.creatorUsername = currentUsername;
         }
         
-        SwingWorker<SaveResult, Void> saveWorker = new SwingWorker<>() {
-            @Override
-            protected SaveResult doInBackground() {
-                try {
-                    URL saveUrl;
-                    HttpURLConnection conn;
-                    
-                    boolean isUpdate = postData.postId > 0;
-                    
-                    if (isUpdate) {
-                        // Update existing post
-                        saveUrl = new URL(API_BASE_URL + "/posts/" + postData.postId + "/");
-                        conn = (HttpURLConnection) saveUrl.openConnection();
-                        conn.setRequestMethod("PUT");
-                    } else {
-                        // Create new post
-                        saveUrl = new URL(API_BASE_URL + "/posts/");
-                        conn = (HttpURLConnection) saveUrl.openConnection();
-                        conn.setRequestMethod("POST");
-                    }
-                    
-                    conn.setRequestProperty("Content-Type", "application/json");
-                    conn.setDoOutput(true);
-                    
-                    // Add auth token
-                    String token = UserService.getCurrentToken();
-                    if (token != null && !token.isEmpty()) {
-                        conn.setRequestProperty("Authorization", "Bearer " + token);
-                    }
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                boolean isUpdate = postData.postId > 0;
+                
+                // Create JSON object for request
+                JSONObject requestObj = new JSONObject();
+                requestObj.put("name", postData.name);
+                requestObj.put("date_of_death", postData.dateOfDeath);
+                requestObj.put("content", postData.content);
+                
+                // Add creator information
+                if (postData.creatorUserId > 0) {
+                    requestObj.put("created_by", postData.creatorUserId);
+                } else if (currentUserId > 0) {
+                    requestObj.put("created_by", currentUserId);
+                }
+                
+                if (postData.creatorUsername != null && !postData.creatorUsername.isEmpty()) {
+                    requestObj.put("creator_username", postData.creatorUsername);
+                } else if (currentUsername != null && !currentUsername.isEmpty()) {
+                    requestObj.put("creator_username", currentUsername);
+                }
+                
+                // Add platforms array
+                JSONArray platformsArray = new JSONArray();
+                for (Integer platformId : postData.platformIds) {
+                    platformsArray.put(platformId);
+                }
+                requestObj.put("platforms", platformsArray);
+                
+                // Images are saved separately through ImageSavePipeline, so the
+                // post's existing image links are left untouched here
+                
+                String requestBody = requestObj.toString();
+                System.out.println("DEBUG - PostService.savePost - Full JSON payload: " + requestBody);
 
-                    // Create JSON object for request
-                    JSONObject requestObj = new JSONObject();
-                    requestObj.put("name", postData.name);
-                    requestObj.put("date_of_death", postData.dateOfDeath);
-                    requestObj.put("content", postData.content);
-                    
-                    // Add creator information
-                    if (postData.creatorUserId > 0) {
-                        requestObj.put("created_by", postData.creatorUserId);
-                    } else if (currentUserId > 0) {
-                        requestObj.put("created_by", currentUserId);
-                    }
-                    
-                    if (postData.creatorUsername != null && !postData.creatorUsername.isEmpty()) {
-                        requestObj.put("creator_username", postData.creatorUsername);
-                    } else if (currentUsername != null && !currentUsername.isEmpty()) {
-                        requestObj.put("creator_username", currentUsername);
-                    }
-                    
-                    // Add platforms array
-                    JSONArray platformsArray = new JSONArray();
-                    for (Integer platformId : postData.platformIds) {
-                        platformsArray.put(platformId);
-                    }
-                    requestObj.put("platforms", platformsArray);
-                    
-                    // Add images array
-                    JSONArray imagesArray = new JSONArray();
-                    for (String imagePath : postData.imagePaths) {
-                        imagesArray.put(imagePath);
-                    }
-                    requestObj.put("images", imagesArray);
-                    
-                    String requestBody = requestObj.toString();
-                    System.out.println("DEBUG - PostService.savePost - Full JSON payload: " + requestBody);
+                ApiClient.Response saveResponse = isUpdate
+                    ? ApiClient.put("/posts/" + postData.postId + "/", requestBody)  // Update existing post
+                    : ApiClient.post("/posts/", requestBody);                        // Create new post
 
-                    try (OutputStream os = conn.getOutputStream()) {
-                        byte[] input = requestBody.getBytes("utf-8");
-                        os.write(input, 0, input.length);
+                int responseCode = saveResponse.statusCode;
+                System.out.println("DEBUG - PostService.savePost - Response code: " + responseCode);
+                
+                String response = saveResponse.body;
+                System.out.println("DEBUG - PostService.savePost - Response: " + response);
+                
+                if (responseCode >= 200 && responseCode < 300) {
+                    // Successful response
+                    int newPostId = -1;
+                    try {
+                        // Try different possible field names for post ID
+                        int postIdField = -1;
+                        int postIdColumn = -1;
+                        JsonReader reader = new JsonReader(response);
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "post_id" -> postIdField = reader.nextIntOrDefault(-1);
+                                case "PostID" -> postIdColumn = reader.nextIntOrDefault(-1);
+                                default -> reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                        
+                        newPostId = postIdField > 0 ? postIdField : postIdColumn;
+                        if (newPostId <= 0 && isUpdate) {
+                            // For updates, use existing ID
+                            newPostId = postData.postId;
+                        }
+                    } catch (Exception e) {
+                        System.out.println("DEBUG - Error parsing response JSON: " + e.getMessage());
                     }
-
-                    int responseCode = conn.getResponseCode();
-                    System.out.println("DEBUG - PostService.savePost - Response code: " + responseCode);
                     
-                    // Read response body regardless of success/failure
-                    StringBuilder responseBuilder = new StringBuilder();
-                    try (BufferedReader reader = new BufferedReader(
-                            new InputStreamReader(
-                                    responseCode >= 200 && responseCode < 300 
-                                    ? conn.getInputStream() 
-                                    : conn.getErrorStream()))) {
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            responseBuilder.append(line);
-                        }
+                    // If we still don't have a post ID, try to get it by querying for the post
+                    if (newPostId <= 0) {
+                        newPostId = retrievePostIdByName(postData.name);
+                        System.out.println("DEBUG - Retrieved post ID by name: " + newPostId);
                     }
                     
-                    String response = responseBuilder.toString();
-                    System.out.println("DEBUG - PostService.savePost - Response: " + response);
+                    SaveResult result = new SaveResult();
+                    result.success = true;
+                    result.message = isUpdate ? "Post updated successfully" : "Post created successfully";
+                    result.postId = newPostId;
                     
-                    if (responseCode >= 200 && responseCode < 300) {
-                        // Successful response
-                        int newPostId = -1;
-                        try {
-                            JSONObject responseJson = new JSONObject(response);
-                            
-                            // Try different possible field names for post ID
-                            if (responseJson.has("post_id")) {
-                                newPostId = responseJson.getInt("post_id");
-                            } else if (responseJson.has("PostID")) {
-                                newPostId = responseJson.getInt("PostID");
-                            } else if (isUpdate) {
-                                // For updates, use existing ID
-                                newPostId = postData.postId;
-                            }
-                        } catch (Exception e) {
-                            System.out.println("DEBUG - Error parsing response JSON: " + e.getMessage());
-                        }
-                        
-                        // If we still don't have a post ID, try to get it by querying for the post
-                        if (newPostId <= 0) {
-                            newPostId = retrievePostIdByName(postData.name);
-                            System.out.println("DEBUG - Retrieved post ID by name: " + newPostId);
-                        }
-                        
-                        SaveResult result = new SaveResult();
-                        result.success = true;
-                        result.message = isUpdate ? "Post updated successfully" : "Post created successfully";
-                        result.postId = newPostId;
-                        
-                        return result;
-                    } else {
-                        // If response indicates post created but ID retrieval failed, try to retrieve ID separately
-                        if (responseCode == 500 && response.contains("Failed to retrieve inserted post ID")) {
-                            int retrievedPostId = retrievePostIdByName(postData.name);
-                            if (retrievedPostId > 0) {
-                                SaveResult result = new SaveResult();
-                                result.success = true;
-                                result.message = "Post created, but ID had to be retrieved separately";
-                                result.postId = retrievedPostId;
-                                return result;
-                            }
+                    return result;
+                } else {
+                    // If response indicates post created but ID retrieval failed, try to retrieve ID separately
+                    if (responseCode == 500 && response.contains("Failed to retrieve inserted post ID")) {
+                        int retrievedPostId = retrievePostIdByName(postData.name);
+                        if (retrievedPostId > 0) {
+                            SaveResult result = new SaveResult();
+                            result.success = true;
+                            result.message = "Post created, but ID had to be retrieved separately";
+                            result.postId = retrievedPostId;
+                            return result;
                         }
-                        
-                        // General error response
-                        SaveResult result = new SaveResult();
-                        result.success = false;
-                        result.message = "Error: " + responseCode + " - " + response;
-                        return result;
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
                     
+                    // General error response
                     SaveResult result = new SaveResult();
                     result.success = false;
-                    result.message = "Error: " + e.getMessage();
+                    result.message = "Error: " + responseCode + " - " + response;
                     return result;
                 }
+            } catch (Exception e) {
+                e.printStackTrace();
+                
+                SaveResult result = new SaveResult();
+                result.success = false;
+                result.message = "Error: " + e.getMessage();
+                return result;
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    SaveResult result = get();
-                    callback.accept(result);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    SaveResult result = new SaveResult();
-                    result.success = false;
-                    result.message = "Error: " + e.getMessage();
-                    callback.accept(result);
-                }
-            }
-        };
-
-        saveWorker.execute();
+        });
     }
 
     // Helper method to retrieve post ID by name when server fails to return it
     private static int retrievePostIdByName(String name) {
         System.out.println("DEBUG - Attempting to retrieve post ID by name: " + name);
         try {
-            // Create URL for getting all posts
-            URL url = new URL(API_BASE_URL + "/posts/");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("Accept", "application/json");
-            
-            // Add auth token
-            String token = UserService.getCurrentToken();
-            if (token != null && !token.isEmpty()) {
-                conn.setRequestProperty("Authorization", "Bearer " + token);
-            }
-            
-            int responseCode = conn.getResponseCode();
-            if (responseCode == 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = in.readLine()) != null) {
-                    response.append(line);
-                }
-                in.close();
-                
-                JSONArray posts = new JSONArray(response.toString());
-                
-                // Look for the post with matching name, get the most recent
-                int mostRecentPostId = -1;
-                for (int i = 0; i < posts.length(); i++) {
-                    JSONObject post = posts.getJSONObject(i);
-                    if (post.getString("Name").equals(name)) {
-                        int currentPostId = post.getInt("PostID");
-                        if (currentPostId > mostRecentPostId) {
-                            mostRecentPostId = currentPostId;
-                        }
-                    }
-                }
-                
-                System.out.println("DEBUG - Retrieved post ID: " + mostRecentPostId + " for name: " + name);
-                return mostRecentPostId;
+            String query = java.net.URLEncoder.encode(name, "UTF-8");
+            ApiClient.Response response = ApiClient.get("/posts/lookup?name=" + query);
+            if (response.statusCode == 200) {
+                int postId = JsonReader.readIntField(response.body, "PostID");
+                System.out.println("DEBUG - Retrieved post ID: " + postId + " for name: " + name);
+                return postId;
             }
         } catch (Exception e) {
             System.out.println("DEBUG - Error retrieving post ID by name: " + e.getMessage());
@@ -0,0 +1,482 @@
+package lib;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.json.JSONObject;
+
+/**
+ * Bulk import of a casualty roster: one draft post per CSV row.
+ *
+ * The CSV has a name and a date of death per row, with an optional header
+ * line. Each row is searched, generated and saved through PostService, a few
+ * rows at a time, with generations spaced out so a roster of hundreds of names
+ * doesn't burst the search and LLM APIs. Rows whose draft is already in
+ * GenerationCache skip the spacing, since they cost no API calls.
+ *
+ * Saved rows are appended to a progress log in dimf.cache.dir, keyed by the
+ * roster's contents, so importing the same file again after the app was
+ * closed midway picks up at the rows that weren't saved yet. A row is logged
+ * as soon as its post exists, so a resumed run never saves the same veteran
+ * twice. Failed rows are not logged and are tried again on the next run.
+ *
+ * With setImagesPerPost() each row also runs an image search alongside the
+ * generation and links the first results to the saved post, leaving out
+ * near-duplicates. An image that can't be saved doesn't fail the row. Linking
+ * is logged separately; a row whose post was saved but whose images weren't
+ * linked yet only gets its images on the next run.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.import.parallelism  - rows processed at once (default 3)
+ *   dimf.import.perMinute    - generations started per minute (default 30)
+ */
+public class RosterImport {
+    private static final int PARALLELISM = Math.max(1, Integer.getInteger("dimf.import.parallelism", 3));
+    private static final long GENERATION_INTERVAL_MS = 60_000L / Math.max(1, Integer.getInteger("dimf.import.perMinute", 30));
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("dimf.cache.dir",
+            System.getProperty("user.home") + "/.dimf-autoposter"));
+
+    private static final DateTimeFormatter OUTPUT_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final List<DateTimeFormatter> INPUT_DATES = List.of(
+            DateTimeFormatter.ofPattern("yyyy-M-d"),
+            DateTimeFormatter.ofPattern("M/d/yyyy"),
+            DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH));
+
+    public enum Status { PENDING, GENERATING, SAVING, DONE, FAILED }
+
+    /**
+     * One roster row and how far it has got
+     */
+    public static class Row {
+        public final int index;        // position in the roster, from 0
+        public final String name;
+        public final String dod;       // yyyy-MM-dd, or the raw text if it couldn't be read
+        public volatile Status status = Status.PENDING;
+        public volatile int postId = -1;
+        public volatile String error;
+        public volatile boolean resumed; // saved by an earlier run
+        public volatile int imagesSaved;
+        final boolean importable;      // false if the name or date couldn't be read
+
+        Row(int index, String name, String dod, String problem) {
+            this.index = index;
+            this.name = name;
+            this.dod = dod;
+            this.importable = problem == null;
+            if (problem != null) {
+                status = Status.FAILED;
+                error = problem;
+            }
+        }
+    }
+
+    private final List<Row> rows;
+    private final Path progressFile;
+    private final AtomicInteger nextRow = new AtomicInteger();
+    private volatile boolean cancelled = false;
+    private long nextGenerationAt = 0;
+    private int imagesPerPost = 0;
+    private BufferedWriter progressWriter;
+
+    /**
+     * Read a roster and the progress of any earlier import of it
+     * @param csvFile CSV with name and date of death columns
+     * @throws IOException if the file can't be read
+     */
+    public RosterImport(Path csvFile) throws IOException {
+        String csv = Files.readString(csvFile, StandardCharsets.UTF_8);
+        this.rows = Collections.unmodifiableList(parseRows(csv));
+        this.progressFile = CACHE_DIR.resolve("import-" + Integer.toHexString(csv.hashCode()) + ".log");
+        readProgress();
+    }
+
+    /**
+     * Also search for images and link up to this many to each saved post
+     * @param count Images per post; 0 (the default) skips the image search
+     */
+    public void setImagesPerPost(int count) {
+        this.imagesPerPost = Math.max(0, count);
+    }
+
+    /**
+     * @return All rows, in roster order
+     */
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return Number of rows that are saved, including rows saved by an earlier run
+     */
+    public int getDoneCount() {
+        int done = 0;
+        for (Row row : rows) {
+            if (row.status == Status.DONE) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Process every row that isn't saved yet
+     * @param onUpdate Called on a background thread whenever a row changes status
+     * @return Future completed when every row has been processed or the import was cancelled
+     */
+    public CompletableFuture<Void> start(Consumer<Row> onUpdate) {
+        cancelled = false;
+        nextRow.set(0);
+        for (Row row : rows) {
+            // Rows that failed in an earlier start() are tried again
+            if (row.importable && row.status != Status.DONE) {
+                row.status = Status.PENDING;
+                row.error = null;
+            }
+        }
+
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        for (int i = 0; i < PARALLELISM; i++) {
+            lanes.add(ServiceExecutor.runAsync(() -> runLane(onUpdate)));
+        }
+        return CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((result, error) -> closeProgress());
+    }
+
+    /**
+     * Stop after the rows in progress; the rest are left pending for the next run
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Take rows one at a time until none are left
+     */
+    private void runLane(Consumer<Row> onUpdate) {
+        int index;
+        while (!cancelled && (index = nextRow.getAndIncrement()) < rows.size()) {
+            Row row = rows.get(index);
+            if (row.status != Status.PENDING) {
+                continue;
+            }
+            try {
+                processRow(row, onUpdate);
+            } catch (Exception e) {
+                Throwable cause = ServiceExecutor.unwrap(e);
+                fail(row, cause.getMessage() != null ? cause.getMessage() : cause.toString(), onUpdate);
+            }
+        }
+    }
+
+    /**
+     * Generate and save one row
+     */
+    private void processRow(Row row, Consumer<Row> onUpdate) throws InterruptedException {
+        if (row.postId > 0) {
+            // Saved by an earlier run that stopped before linking the images
+            resumeImages(row, onUpdate);
+            return;
+        }
+
+        row.status = Status.GENERATING;
+        onUpdate.accept(row);
+
+        if (GenerationCache.getDraft(row.name, row.dod) == null) {
+            waitForGenerationSlot();
+        }
+        CompletableFuture<ImageService.ImageResult> imageSearch = imagesPerPost > 0
+                ? ImageService.searchGoogleImagesAsync(row.name + " " + row.dod)
+                : null;
+        String content = PostService.generatePostContentAsync(row.name, row.dod).join();
+        if (content.startsWith("Error: ")) {
+            if (imageSearch != null) {
+                imageSearch.cancel(true);
+            }
+            fail(row, content.substring("Error: ".length()), onUpdate);
+            return;
+        }
+
+        row.status = Status.SAVING;
+        onUpdate.accept(row);
+
+        PostService.PostData post = new PostService.PostData();
+        post.name = row.name;
+        post.dateOfDeath = row.dod;
+        post.content = content;
+        PostService.SaveResult result = PostService.savePostAsync(post).join();
+        if (!result.success) {
+            fail(row, result.message, onUpdate);
+            return;
+        }
+
+        // Log the post before the image step, so a run stopped in between never saves it twice
+        row.postId = result.postId;
+        appendProgress(new JSONObject().put("row", row.index).put("postId", row.postId).put("images", imageSearch != null));
+        if (imageSearch != null) {
+            row.imagesSaved = saveImages(row.postId, imageSearch.join());
+            appendProgress(new JSONObject().put("row", row.index).put("postId", row.postId).put("imagesSaved", row.imagesSaved));
+        }
+        row.status = Status.DONE;
+        System.out.println("DEBUG - RosterImport - Saved row " + (row.index + 1) + " as post ID: " + row.postId);
+        onUpdate.accept(row);
+    }
+
+    /**
+     * Link images to a post saved by an earlier run; linking an image twice is harmless
+     */
+    private void resumeImages(Row row, Consumer<Row> onUpdate) {
+        row.status = Status.SAVING;
+        onUpdate.accept(row);
+
+        if (imagesPerPost > 0) {
+            row.imagesSaved = saveImages(row.postId, ImageService.searchGoogleImagesAsync(row.name + " " + row.dod).join());
+        }
+        appendProgress(new JSONObject().put("row", row.index).put("postId", row.postId).put("imagesSaved", row.imagesSaved));
+        row.status = Status.DONE;
+        System.out.println("DEBUG - RosterImport - Linked images of row " + (row.index + 1) + " to post ID: " + row.postId);
+        onUpdate.accept(row);
+    }
+
+    /**
+     * Link the first search results to a saved post
+     * @return Number of images linked
+     */
+    private int saveImages(int postId, ImageService.ImageResult search) {
+        if (!search.success || search.images == null || search.images.isEmpty()) {
+            System.out.println("DEBUG - RosterImport - No images for post ID " + postId + ": " + search.message);
+            return 0;
+        }
+
+        List<String> urls = new ArrayList<>();
+        for (ImageService.ImageData image : search.images) {
+            if (urls.size() == imagesPerPost) {
+                break;
+            }
+            urls.add(image.url);
+        }
+
+        ImageSavePipeline.SaveReport report = ImageSavePipeline.saveImages(postId, urls, List.of(), List.of()).join();
+        int saved = 0;
+        for (ImageSavePipeline.ImageSaveResult image : report.results) {
+            if ("linked".equals(image.status) || "already_linked".equals(image.status)) {
+                saved++;
+            }
+        }
+        if (report.hasErrors()) {
+            System.out.println("DEBUG - RosterImport - Some images failed for post ID " + postId + ": " + report.getFailures().size());
+        }
+        return saved;
+    }
+
+    private void fail(Row row, String error, Consumer<Row> onUpdate) {
+        System.out.println("DEBUG - RosterImport - Row " + (row.index + 1) + " failed: " + error);
+        row.error = error;
+        row.status = Status.FAILED;
+        onUpdate.accept(row);
+    }
+
+    /**
+     * Space generations GENERATION_INTERVAL_MS apart across all lanes
+     */
+    private void waitForGenerationSlot() throws InterruptedException {
+        long waitMs;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, nextGenerationAt);
+            nextGenerationAt = slot + GENERATION_INTERVAL_MS;
+            waitMs = slot - now;
+        }
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    /**
+     * Split the CSV into rows, skipping blank lines and a header line
+     */
+    private static List<Row> parseRows(String csv) {
+        List<Row> rows = new ArrayList<>();
+        if (csv.startsWith("\uFEFF")) {
+            csv = csv.substring(1);
+        }
+
+        List<List<String>> records = parseCsv(csv);
+        for (int i = 0; i < records.size(); i++) {
+            List<String> fields = records.get(i);
+            String name = fields.isEmpty() ? "" : fields.get(0).trim();
+            String rawDod = fields.size() > 1 ? fields.get(1).trim() : "";
+            if (name.isEmpty() && rawDod.isEmpty()) {
+                continue;
+            }
+
+            String dod = normalizeDate(rawDod);
+            if (i == 0 && dod == null && name.toLowerCase(Locale.ROOT).contains("name")) {
+                // Header line
+                continue;
+            }
+
+            String problem = name.isEmpty() ? "Missing name"
+                    : dod == null ? "Unrecognized date of death: " + rawDod
+                    : null;
+            rows.add(new Row(rows.size(), name, dod != null ? dod : rawDod, problem));
+        }
+        return rows;
+    }
+
+    /**
+     * RFC 4180 style CSV: quoted fields may contain commas, quotes ("") and line breaks
+     */
+    private static List<List<String>> parseCsv(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                fields.add(field.toString());
+                field.setLength(0);
+                records.add(fields);
+                fields = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (field.length() > 0 || !fields.isEmpty()) {
+            fields.add(field.toString());
+            records.add(fields);
+        }
+        return records;
+    }
+
+    /**
+     * Read a date in one of the common roster formats
+     * @return The date as yyyy-MM-dd, or null if it isn't a date
+     */
+    static String normalizeDate(String text) {
+        for (DateTimeFormatter format : INPUT_DATES) {
+            try {
+                return LocalDate.parse(text, format).format(OUTPUT_DATE);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark the rows saved by an earlier run of the same roster
+     */
+    private void readProgress() {
+        if (!Files.exists(progressFile)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(progressFile, StandardCharsets.UTF_8)) {
+                try {
+                    int index = -1;
+                    int postId = -1;
+                    boolean images = false;
+                    int imagesSaved = -1;
+                    JsonReader reader = new JsonReader(line);
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "row" -> index = reader.nextInt();
+                            case "postId" -> postId = reader.nextInt();
+                            case "images" -> images = reader.nextBoolean();
+                            case "imagesSaved" -> imagesSaved = reader.nextInt();
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+
+                    if (index >= 0 && index < rows.size() && rows.get(index).importable) {
+                        Row row = rows.get(index);
+                        row.postId = postId;
+                        row.resumed = true;
+                        if (imagesSaved >= 0) {
+                            row.imagesSaved = imagesSaved;
+                            row.status = Status.DONE;
+                        } else if (!images) {
+                            row.status = Status.DONE;
+                        }
+                        // Otherwise the post exists but its images still have to be linked
+                    }
+                } catch (JsonReader.SyntaxException e) {
+                    // A torn last line from a crash; that row is simply done again
+                    System.out.println("DEBUG - RosterImport - Skipping unreadable progress record: " + e.getMessage());
+                }
+            }
+            System.out.println("DEBUG - RosterImport - Resuming with " + getDoneCount() + " of " + rows.size() + " rows saved");
+        } catch (IOException e) {
+            System.out.println("DEBUG - RosterImport - Failed to read progress: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Append a record to the progress log, flushed right away so a crash loses at most that record
+     */
+    private synchronized void appendProgress(JSONObject record) {
+        try {
+            if (progressWriter == null) {
+                Files.createDirectories(CACHE_DIR);
+                progressWriter = Files.newBufferedWriter(progressFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            progressWriter.write(record.toString());
+            progressWriter.newLine();
+            progressWriter.flush();
+        } catch (IOException e) {
+            System.out.println("DEBUG - RosterImport - Failed to record progress: " + e.getMessage());
+        }
+    }
+
+    private synchronized void closeProgress() {
+        if (progressWriter != null) {
+            try {
+                progressWriter.close();
+            } catch (IOException ignored) {
+            }
+            progressWriter = null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package lib;
+
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shared executor for all service calls.
+ *
+ * Every backend call runs on its own virtual thread ("dimf-service-N"). A call
+ * blocked on the network parks its virtual thread instead of holding an OS thread,
+ * so thousands of in-flight requests cost kilobytes of heap rather than a
+ * platform thread stack each. How many of those requests actually hit the same
+ * endpoint at once is limited separately in ApiClient.
+ *
+ * Cancelling a future returned by supplyAsync or runAsync interrupts the call's
+ * thread, which aborts a request that is waiting on the network or on an
+ * endpoint permit.
+ *
+ * deliver() hands results to callbacks on the event dispatch thread. Without a
+ * display (java.awt.headless) there is no such thread, so callbacks run on the
+ * thread that finished the call instead; setCallbackExecutor() can change this.
+ */
+public class ServiceExecutor {
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dimf-service-", 0).factory());
+
+    private static volatile Executor callbackExecutor = GraphicsEnvironment.isHeadless()
+            ? Runnable::run
+            : EventQueue::invokeLater;
+
+    /**
+     * Get the shared executor
+     * @return The executor that service calls run on
+     */
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Run a blocking service call on the shared executor
+     * @param task The call to run
+     * @return Future completed with the call's result
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> running = EXECUTOR.submit(() -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e instanceof CompletionException ? e : new CompletionException(e));
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run a task on the shared executor without a result
+     * @param task The task to run
+     * @return Future completed when the task finishes
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Choose where deliver() runs callbacks
+     * @param executor Executor for callbacks, e.g. Runnable::run to run them on the service thread
+     */
+    public static void setCallbackExecutor(Executor executor) {
+        callbackExecutor = executor;
+    }
+
+    /**
+     * Hand the result of a future to a callback on the Event Dispatch Thread
+     * (or the callback executor, see setCallbackExecutor)
+     * @param future The future to wait on
+     * @param callback Callback to receive the result
+     * @param onError Maps a failure to the value passed to the callback
+     */
+    public static <T> void deliver(CompletableFuture<T> future, Consumer<T> callback, Function<Throwable, T> onError) {
+        future.whenComplete((result, error) -> {
+            T value = error == null ? result : onError.apply(unwrap(error));
+            callbackExecutor.execute(() -> callback.accept(value));
+        });
+    }
+
+    /**
+     * Strip the CompletionException wrapper added by CompletableFuture
+     */
+    public static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+}
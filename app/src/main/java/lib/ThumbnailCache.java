@@ -0,0 +1,175 @@
+package lib;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Two-tier cache of decoded thumbnails.
+ *
+ * The first tier is an in-memory LRU of decoded images, bounded by entry count.
+ * The second tier is a directory of PNG files named by the SHA-256 of the image
+ * URL, bounded by total bytes; when it grows past the limit the least recently
+ * used files are deleted. Reopening a post shows its thumbnails from memory or
+ * disk instead of downloading and decoding the full-size images again.
+ *
+ * Settings can be overridden with system properties:
+ *   dimf.cache.dir                 - cache root (default ~/.dimf-autoposter)
+ *   dimf.thumbnail.memoryEntries   - thumbnails kept in memory (default 200)
+ *   dimf.thumbnail.diskBytes       - max size of the disk cache (default 50 MB)
+ */
+public class ThumbnailCache {
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("dimf.cache.dir",
+            System.getProperty("user.home") + "/.dimf-autoposter"), "thumbnails");
+    private static final int MEMORY_ENTRIES = Integer.getInteger("dimf.thumbnail.memoryEntries", 200);
+    private static final long DISK_BYTES = Long.getLong("dimf.thumbnail.diskBytes", 50L * 1024 * 1024);
+
+    private static final Map<String, BufferedImage> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+
+    // Total bytes on disk, -1 until the directory has been scanned
+    private static long diskBytes = -1;
+
+    /**
+     * Get a thumbnail from memory only; cheap enough to call on the EDT
+     * @param url Image URL
+     * @return The thumbnail, or null if it is not in memory
+     */
+    public static synchronized BufferedImage getFromMemory(String url) {
+        return memory.get(url);
+    }
+
+    /**
+     * Get a thumbnail from memory, falling back to disk. Reads files, so call off the EDT.
+     * @param url Image URL
+     * @return The thumbnail, or null if it is not cached
+     */
+    public static BufferedImage get(String url) {
+        BufferedImage image = getFromMemory(url);
+        if (image != null) {
+            return image;
+        }
+
+        Path file = fileFor(url);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            image = ImageIO.read(file.toFile());
+            if (image == null) {
+                return null;
+            }
+            // Mark as recently used for disk eviction
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            System.out.println("DEBUG - ThumbnailCache - Failed to read " + file + ": " + e.getMessage());
+            return null;
+        }
+
+        synchronized (ThumbnailCache.class) {
+            memory.put(url, image);
+        }
+        return image;
+    }
+
+    /**
+     * Store a thumbnail in memory and on disk. Writes files, so call off the EDT.
+     * @param url Image URL
+     * @param image The thumbnail
+     */
+    public static void put(String url, BufferedImage image) {
+        synchronized (ThumbnailCache.class) {
+            memory.put(url, image);
+        }
+
+        Path file = fileFor(url);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(CACHE_DIR);
+
+            // Write to a temp file first so a reader never sees a half-written PNG
+            tempFile = Files.createTempFile(CACHE_DIR, "thumb-", ".tmp");
+            ImageIO.write(image, "png", tempFile.toFile());
+            long size = Files.size(tempFile);
+            long replaced = Files.exists(file) ? Files.size(file) : 0;
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+
+            addDiskBytes(size - replaced);
+        } catch (IOException e) {
+            System.out.println("DEBUG - ThumbnailCache - Failed to write " + file + ": " + e.getMessage());
+            if (tempFile != null) {
+                tempFile.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * Track the disk size and evict the least recently used files when over the limit
+     */
+    private static synchronized void addDiskBytes(long delta) {
+        if (diskBytes < 0) {
+            diskBytes = 0;
+            for (File file : listFiles()) {
+                diskBytes += file.length();
+            }
+        } else {
+            diskBytes += delta;
+        }
+
+        if (diskBytes <= DISK_BYTES) {
+            return;
+        }
+
+        // Oldest first; trim to 90% so we don't evict again on the next write
+        File[] files = listFiles();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long target = DISK_BYTES * 9 / 10;
+        for (File file : files) {
+            if (diskBytes <= target) {
+                break;
+            }
+            long size = file.length();
+            if (file.delete()) {
+                diskBytes -= size;
+            }
+        }
+        System.out.println("DEBUG - ThumbnailCache - Evicted disk cache down to " + diskBytes + " bytes");
+    }
+
+    private static File[] listFiles() {
+        File[] files = CACHE_DIR.toFile().listFiles((dir, name) -> name.endsWith(".png"));
+        return files != null ? files : new File[0];
+    }
+
+    /**
+     * Content-addressed file for a URL: the hex SHA-256 of the URL
+     */
+    private static Path fileFor(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return CACHE_DIR.resolve(HexFormat.of().formatHex(hash) + ".png");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
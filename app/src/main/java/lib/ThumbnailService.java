@@ -0,0 +1,239 @@
+package lib;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Downloads images and turns them into preview thumbnails off the EDT.
+ *
+ * Decoding and scaling are CPU heavy, so they run on a small bounded pool of
+ * named daemon threads ("dimf-thumbnail-N") rather than on the shared service
+ * executor. Concurrent requests for the same URL share one download. The pool
+ * size can be changed with the dimf.thumbnail.threads system property.
+ *
+ * Finished thumbnails go into ThumbnailCache, so an image that has been shown
+ * before is served from memory or disk instead of being downloaded again. URLs
+ * that ImageProbe recently found dead or oversized fail without a download.
+ */
+public class ThumbnailService {
+    public static final int THUMBNAIL_SIZE = 100;
+
+    private static final int POOL_SIZE = Integer.getInteger("dimf.thumbnail.threads", 4);
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.ofSeconds(30);
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "dimf-thumbnail-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        // Let idle threads exit so the pool costs nothing between loads
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * One download shared by everyone waiting for the same URL
+     */
+    private static class Load {
+        final CompletableFuture<BufferedImage> result = new CompletableFuture<>();
+        Future<?> task;
+        int waiters;
+    }
+
+    // Loads in progress, so the same URL is only fetched once at a time; guarded by itself
+    private static final Map<String, Load> inFlight = new HashMap<>();
+
+    /**
+     * Load a THUMBNAIL_SIZE x THUMBNAIL_SIZE thumbnail for an image URL.
+     *
+     * Each caller gets its own future. Cancelling it stops waiting, and once
+     * every caller of a URL has cancelled, the queued or running download and
+     * decode are cancelled too.
+     * @param url Image URL
+     * @return Future completed with the thumbnail, or failed if the image could not be loaded
+     */
+    public static CompletableFuture<BufferedImage> loadThumbnail(String url) {
+        BufferedImage cached = ThumbnailCache.getFromMemory(url);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        synchronized (inFlight) {
+            Load load = inFlight.get(url);
+            if (load == null) {
+                Load newLoad = new Load();
+                newLoad.task = EXECUTOR.submit(() -> runLoad(url, newLoad));
+                inFlight.put(url, newLoad);
+                load = newLoad;
+            }
+            load.waiters++;
+
+            Load waitedOn = load;
+            CompletableFuture<BufferedImage> future = load.result.copy();
+            future.whenComplete((thumbnail, error) -> {
+                if (future.isCancelled()) {
+                    release(url, waitedOn);
+                }
+            });
+            return future;
+        }
+    }
+
+    /**
+     * Drop one waiter and cancel the load when nobody is left waiting for it
+     */
+    private static void release(String url, Load load) {
+        synchronized (inFlight) {
+            load.waiters--;
+            if (load.waiters > 0 || load.result.isDone()) {
+                return;
+            }
+            inFlight.remove(url, load);
+        }
+        // A queued task never starts; a running one is interrupted
+        load.task.cancel(true);
+        load.result.cancel(false);
+    }
+
+    /**
+     * Fetch one thumbnail on the pool: disk cache first, then download and decode
+     */
+    private static void runLoad(String url, Load load) {
+        CompletableFuture<BufferedImage> future = load.result;
+        try {
+            BufferedImage thumbnail = ThumbnailCache.get(url);
+            if (thumbnail == null) {
+                ImageProbe.Verdict verdict = ImageProbe.getCached(url);
+                if (verdict != null && !verdict.ok) {
+                    throw new IOException("Image rejected: " + verdict.reason);
+                }
+                thumbnail = createThumbnail(url);
+                if (Thread.currentThread().isInterrupted()) {
+                    // Cancelled mid-download; don't cache what may be a partial image
+                    return;
+                }
+                ThumbnailCache.put(url, thumbnail);
+            }
+            future.complete(thumbnail);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } finally {
+            synchronized (inFlight) {
+                inFlight.remove(url, load);
+            }
+        }
+    }
+
+    /**
+     * Download, decode and scale one image
+     */
+    private static BufferedImage createThumbnail(String url) throws IOException, InterruptedException {
+        try (InputStream in = openImage(url);
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            BufferedImage image = decodeSubsampled(imageIn);
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + url);
+            }
+            return scale(image);
+        }
+    }
+
+    /**
+     * Decode an image at roughly twice the thumbnail size instead of full resolution.
+     *
+     * The header is read first to get the dimensions, then the reader skips
+     * source pixels so a 4000x3000 photo is decoded as about 200x200 rather than
+     * as a 48 MB ARGB raster. The final bilinear scale works from that.
+     * @return The decoded image, or null if no reader supports the format
+     */
+    private static BufferedImage decodeSubsampled(ImageInputStream imageIn) throws IOException {
+        if (imageIn == null) {
+            return null;
+        }
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+        if (!readers.hasNext()) {
+            return null;
+        }
+
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(imageIn, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            int xStep = Math.max(1, width / (THUMBNAIL_SIZE * 2));
+            int yStep = Math.max(1, height / (THUMBNAIL_SIZE * 2));
+            param.setSourceSubsampling(xStep, yStep, 0, 0);
+
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Open the image bytes; http(s) goes through the shared HttpClient with a timeout, other
+     * schemes such as file: are read directly
+     */
+    private static InputStream openImage(String url) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            return uri.toURL().openStream();
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(DOWNLOAD_TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = ApiClient.getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            response.body().close();
+            throw new IOException("HTTP Error: " + response.statusCode() + " for " + url);
+        }
+        return response.body();
+    }
+
+    /**
+     * Scale an image to the thumbnail size
+     */
+    private static BufferedImage scale(BufferedImage image) {
+        BufferedImage thumbnail = new BufferedImage(THUMBNAIL_SIZE, THUMBNAIL_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, THUMBNAIL_SIZE, THUMBNAIL_SIZE, null);
+        } finally {
+            g.dispose();
+        }
+        return thumbnail;
+    }
+}
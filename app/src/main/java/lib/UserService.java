@@ -1,23 +1,15 @@
 package lib;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
-import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
-
 import org.json.JSONObject;
 
 /**
  * Service class to handle user authentication and session management
  */
 public class UserService {
-    private static final String API_BASE_URL = "http://localhost:8000/api";
-    
     // Current user information - static to maintain across the application
     private static int currentUserId = -1;
     private static String currentUsername = null;
@@ -55,101 +47,56 @@ public class UserService {
      * @param callback Callback with auth result
      */
     public static void login(String username, String password, Consumer<AuthResult> callback) {
+        ServiceExecutor.deliver(loginAsync(username, password), callback,
+            e -> new AuthResult(false, "Error: " + e.getMessage()));
+    }
+    
+    /**
+     * Async variant of login, run on the shared service executor
+     */
+    public static CompletableFuture<AuthResult> loginAsync(String username, String password) {
         System.out.println("DEBUG - UserService.login - Username: " + username);
         
-        SwingWorker<AuthResult, Void> loginWorker = new SwingWorker<>() {
-            @Override
-            protected AuthResult doInBackground() {
-                try {
-                    // Create JSON payload
-                    JSONObject payload = new JSONObject();
-                    payload.put("username", username);
-                    payload.put("password", password);
-                    String jsonBody = payload.toString();
-                    
-                    // Create connection
-                    URL loginUrl = new URL(API_BASE_URL + "/auth/login/");
-                    HttpURLConnection conn = (HttpURLConnection) loginUrl.openConnection();
-                    conn.setRequestMethod("POST");
-                    conn.setRequestProperty("Content-Type", "application/json");
-                    conn.setRequestProperty("Accept", "application/json");
-                    conn.setDoOutput(true);
-                    
-                    // Send request body
-                    try (OutputStream os = conn.getOutputStream()) {
-                        byte[] input = jsonBody.getBytes("utf-8");
-                        os.write(input, 0, input.length);
-                    }
-                    
-                    // Get response
-                    int responseCode = conn.getResponseCode();
-                    System.out.println("DEBUG - UserService.login - Response code: " + responseCode);
-                    
-                    // Read response body
-                    StringBuilder responseBody = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(
-                                    responseCode >= 200 && responseCode < 300 
-                                    ? conn.getInputStream() 
-                                    : conn.getErrorStream()))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            responseBody.append(line);
-                        }
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                // Create JSON payload
+                JSONObject payload = new JSONObject();
+                payload.put("username", username);
+                payload.put("password", password);
+                String jsonBody = payload.toString();
+                
+                // Send request through the shared client
+                ApiClient.Response response = ApiClient.post("/auth/login/", jsonBody);
+                
+                // Get response
+                int responseCode = response.statusCode;
+                System.out.println("DEBUG - UserService.login - Response code: " + responseCode);
+                
+                String responseBodyStr = response.body;
+                System.out.println("DEBUG - UserService.login - Response body: " + responseBodyStr);
+                
+                // Process response
+                if (responseCode >= 200 && responseCode < 300) {
+                    // Create auth result
+                    AuthResult authResult = new AuthResult(true, "Login successful");
+                    readSession(responseBodyStr, authResult);
+                    if (authResult.token == null || authResult.userData == null) {
+                        throw new Exception("Invalid response format from login API: " + responseBodyStr);
                     }
                     
-                    String responseBodyStr = responseBody.toString();
-                    System.out.println("DEBUG - UserService.login - Response body: " + responseBodyStr);
+                    // Set current user
+                    setCurrentUser(authResult.userData.userId, authResult.userData.username, authResult.token);
                     
-                    // Process response
-                    if (responseCode >= 200 && responseCode < 300) {
-                        JSONObject result = new JSONObject(responseBodyStr);
-                        
-                        // Create auth result
-                        AuthResult authResult = new AuthResult(true, "Login successful");
-                        authResult.token = result.getString("token");
-                        
-                        // Set user data
-                        UserData userData = new UserData();
-                        JSONObject user = result.getJSONObject("user");
-                        userData.userId = user.getInt("UserID");
-                        userData.username = user.getString("Username");
-                        userData.email = user.optString("Email", "");
-                        authResult.userData = userData;
-                        
-                        // Set current user
-                        setCurrentUser(userData.userId, userData.username, authResult.token);
-                        
-                        return authResult;
-                    } else {
-                        String errorMsg = "Login failed";
-                        if (responseBodyStr.contains("detail")) {
-                            JSONObject error = new JSONObject(responseBodyStr);
-                            errorMsg = error.getString("detail");
-                        }
-                        return new AuthResult(false, errorMsg);
-                    }
-                } catch (Exception e) {
-                    System.out.println("DEBUG - UserService.login - Exception: " + e.getMessage());
-                    e.printStackTrace();
-                    return new AuthResult(false, "Error: " + e.getMessage());
-                }
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    AuthResult result = get();
-                    SwingUtilities.invokeLater(() -> callback.accept(result));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    SwingUtilities.invokeLater(() -> 
-                        callback.accept(new AuthResult(false, "Error: " + e.getMessage())));
+                    return authResult;
+                } else {
+                    return new AuthResult(false, readDetail(responseBodyStr, "Login failed"));
                 }
+            } catch (Exception e) {
+                System.out.println("DEBUG - UserService.login - Exception: " + e.getMessage());
+                e.printStackTrace();
+                return new AuthResult(false, "Error: " + e.getMessage());
             }
-        };
-        
-        loginWorker.execute();
+        });
     }
     
     /**
@@ -161,106 +108,107 @@ public class UserService {
      * @param callback Callback with auth result
      */
     public static void register(String username, String email, String password, Consumer<AuthResult> callback) {
+        ServiceExecutor.deliver(registerAsync(username, email, password), callback,
+            e -> new AuthResult(false, "Error: " + e.getMessage()));
+    }
+    
+    /**
+     * Async variant of register, run on the shared service executor
+     */
+    public static CompletableFuture<AuthResult> registerAsync(String username, String email, String password) {
         System.out.println("DEBUG - UserService.register - Username: " + username);
         
-        SwingWorker<AuthResult, Void> registerWorker = new SwingWorker<>() {
-            @Override
-            protected AuthResult doInBackground() {
-                try {
-                    // Create JSON payload
-                    JSONObject payload = new JSONObject();
-                    payload.put("username", username);
-                    payload.put("email", email);
-                    payload.put("password", password);
-                    String jsonBody = payload.toString();
+        return ServiceExecutor.supplyAsync(() -> {
+            try {
+                // Create JSON payload
+                JSONObject payload = new JSONObject();
+                payload.put("username", username);
+                payload.put("email", email);
+                payload.put("password", password);
+                String jsonBody = payload.toString();
+                
+                // Send request through the shared client
+                ApiClient.Response response = ApiClient.post("/auth/register", jsonBody);  // Remove trailing slash to match backend
+                
+                // Get response
+                int responseCode = response.statusCode;
+                System.out.println("DEBUG - UserService.register - Response code: " + responseCode);
+                
+                String responseBodyStr = response.body;
+                System.out.println("DEBUG - UserService.register - Response body: " + responseBodyStr);
+                
+                // Process response
+                if (responseCode >= 200 && responseCode < 300) {
+                    // Create auth result
+                    AuthResult authResult = new AuthResult(true, "Registration successful");
                     
-                    // Create connection
-                    URL registerUrl = new URL(API_BASE_URL + "/auth/register");  // Remove trailing slash to match backend
-                    HttpURLConnection conn = (HttpURLConnection) registerUrl.openConnection();
-                    conn.setRequestMethod("POST");
-                    conn.setRequestProperty("Content-Type", "application/json");
-                    conn.setRequestProperty("Accept", "application/json");
-                    conn.setDoOutput(true);
-                    
-                    // Send request body
-                    try (OutputStream os = conn.getOutputStream()) {
-                        byte[] input = jsonBody.getBytes("utf-8");
-                        os.write(input, 0, input.length);
-                    }
-                    
-                    // Get response
-                    int responseCode = conn.getResponseCode();
-                    System.out.println("DEBUG - UserService.register - Response code: " + responseCode);
-                    
-                    // Read response body
-                    StringBuilder responseBody = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(
-                                    responseCode >= 200 && responseCode < 300 
-                                    ? conn.getInputStream() 
-                                    : conn.getErrorStream()))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            responseBody.append(line);
-                        }
+                    // If auto-login after registration, also set token and user data
+                    readSession(responseBodyStr, authResult);
+                    if (authResult.token != null && authResult.userData != null) {
+                        // Set current user
+                        setCurrentUser(authResult.userData.userId, authResult.userData.username, authResult.token);
                     }
                     
-                    String responseBodyStr = responseBody.toString();
-                    System.out.println("DEBUG - UserService.register - Response body: " + responseBodyStr);
-                    
-                    // Process response
-                    if (responseCode >= 200 && responseCode < 300) {
-                        JSONObject result = new JSONObject(responseBodyStr);
-                        
-                        // Create auth result
-                        AuthResult authResult = new AuthResult(true, "Registration successful");
-                        
-                        // If auto-login after registration, also set token and user data
-                        if (result.has("token")) {
-                            authResult.token = result.getString("token");
-                            
-                            // Set user data
-                            UserData userData = new UserData();
-                            JSONObject user = result.getJSONObject("user");
-                            userData.userId = user.getInt("UserID");
-                            userData.username = user.getString("Username");
-                            userData.email = user.optString("Email", "");
-                            authResult.userData = userData;
-                            
-                            // Set current user
-                            setCurrentUser(userData.userId, userData.username, authResult.token);
-                        }
-                        
-                        return authResult;
-                    } else {
-                        String errorMsg = "Registration failed";
-                        if (responseBodyStr.contains("detail")) {
-                            JSONObject error = new JSONObject(responseBodyStr);
-                            errorMsg = error.getString("detail");
+                    return authResult;
+                } else {
+                    return new AuthResult(false, readDetail(responseBodyStr, "Registration failed"));
+                }
+            } catch (Exception e) {
+                System.out.println("DEBUG - UserService.register - Exception: " + e.getMessage());
+                e.printStackTrace();
+                return new AuthResult(false, "Error: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Read the token and user returned by a login or auto-login
+     * @param body Response body
+     * @param authResult Result to fill in; fields missing from the response are left unset
+     */
+    private static void readSession(String body, AuthResult authResult) {
+        JsonReader reader = new JsonReader(body);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "token" -> authResult.token = reader.nextStringOrNull();
+                case "user" -> {
+                    UserData userData = new UserData();
+                    userData.email = "";
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "UserID" -> userData.userId = reader.nextInt();
+                            case "Username" -> userData.username = reader.nextString();
+                            case "Email" -> userData.email = Objects.requireNonNullElse(reader.nextStringOrNull(), "");
+                            default -> reader.skipValue();
                         }
-                        return new AuthResult(false, errorMsg);
                     }
-                } catch (Exception e) {
-                    System.out.println("DEBUG - UserService.register - Exception: " + e.getMessage());
-                    e.printStackTrace();
-                    return new AuthResult(false, "Error: " + e.getMessage());
+                    reader.endObject();
+                    authResult.userData = userData;
                 }
+                default -> reader.skipValue();
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    AuthResult result = get();
-                    SwingUtilities.invokeLater(() -> callback.accept(result));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    SwingUtilities.invokeLater(() -> 
-                        callback.accept(new AuthResult(false, "Error: " + e.getMessage())));
-                }
+        }
+        reader.endObject();
+    }
+    
+    /**
+     * Read the error message from a FastAPI error response
+     * @param body Response body
+     * @param fallback Message used when the body has no readable detail
+     */
+    private static String readDetail(String body, String fallback) {
+        try {
+            JsonReader reader = new JsonReader(body);
+            reader.beginObject();
+            if (reader.findField("detail") && reader.peek() == JsonReader.Token.STRING) {
+                return reader.nextString();
             }
-        };
-        
-        registerWorker.execute();
+        } catch (JsonReader.SyntaxException e) {
+            System.out.println("DEBUG - UserService - Unreadable error response: " + e.getMessage());
+        }
+        return fallback;
     }
     
     /**
@@ -1,6 +1,8 @@
 import os
+import json
 from dotenv import load_dotenv
 from fastapi import APIRouter, HTTPException
+from fastapi.responses import StreamingResponse
 from pydantic import BaseModel
 from huggingface_hub import InferenceClient
 
@@ -12,46 +14,47 @@ class GoogleSearchResult(BaseModel):
 
 router = APIRouter()
 
+def create_completion_stream(data: GoogleSearchResult):
+    client = InferenceClient(
+        provider="fireworks-ai",
+        api_key=os.getenv("HUGGING_FACE_API_KEY")
+    )
+
+    example_post = (
+        "On April 3rd, 2008, SGT Nicholas A. Robertson, died from wounds sustained during combat in the Zahn Khan District "
+        "of Afghanistan the day before while serving as a member of Special Operations Team Alpha. Nick, as he was known to "
+        "family and friends, was an accomplished soldier who used his advanced linguistic and cryptologic skills to exploit enemy "
+        "communications and protect forces on the front lines. May we never forget his commitment to service and sacrifice and honor "
+        "his legacy of success and dedication. RIP SGT Robertson. #tyfys #AmericanHero #DIMFRemembers\n\n"
+    )
+
+    messages = [
+        {
+            "role": "user",
+            "content": (
+                "Create a respectful and heartfelt memorial for a fallen veteran using the following data. "
+                "Do not include markdown punctuation. Add hashtags. This is an example post.\n\n"
+                + example_post +
+                "Veteran: " + data.q +
+                " \n\nExtracted Snippets:\n\n" + data.summary
+            )
+        }
+    ]
+
+    return client.chat.completions.create(
+        model="deepseek-ai/DeepSeek-V3-0324",
+        messages=messages,
+        temperature=0.5,
+        max_tokens=2048,
+        top_p=0.7,
+        stream=True
+    )
+
 @router.post("/")
 def hf_ai_query(data: GoogleSearchResult):
     try:
-        client = InferenceClient(
-            provider="fireworks-ai",
-            api_key=os.getenv("HUGGING_FACE_API_KEY")
-        )
-
-        example_post = (
-            "On April 3rd, 2008, SGT Nicholas A. Robertson, died from wounds sustained during combat in the Zahn Khan District "
-            "of Afghanistan the day before while serving as a member of Special Operations Team Alpha. Nick, as he was known to "
-            "family and friends, was an accomplished soldier who used his advanced linguistic and cryptologic skills to exploit enemy "
-            "communications and protect forces on the front lines. May we never forget his commitment to service and sacrifice and honor "
-            "his legacy of success and dedication. RIP SGT Robertson. #tyfys #AmericanHero #DIMFRemembers\n\n"
-        )
-
-        messages = [
-            {
-                "role": "user",
-                "content": (
-                    "Create a respectful and heartfelt memorial for a fallen veteran using the following data. "
-                    "Do not include markdown punctuation. Add hashtags. This is an example post.\n\n"
-                    + example_post +
-                    "Veteran: " + data.q +
-                    " \n\nExtracted Snippets:\n\n" + data.summary
-                )
-            }
-        ]
-
         full_response = ""
-        stream = client.chat.completions.create(
-            model="deepseek-ai/DeepSeek-V3-0324",
-            messages=messages,
-            temperature=0.5,
-            max_tokens=2048,
-            top_p=0.7,
-            stream=True
-        )
-
-        for chunk in stream:
+        for chunk in create_completion_stream(data):
             content = chunk.choices[0].delta.content
             if content:
                 full_response += content
@@ -60,3 +63,19 @@ def hf_ai_query(data: GoogleSearchResult):
 
     except Exception as e:
         raise HTTPException(status_code=500, detail=f"Error during AI response: {str(e)}")
+
+@router.post("/stream")
+def hf_ai_query_stream(data: GoogleSearchResult):
+    # Same generation as POST /, but each chunk is sent as soon as the model produces it,
+    # one JSON object per line: {"delta": "..."} chunks, then {"done": true} or {"error": "..."}
+    def generate():
+        try:
+            for chunk in create_completion_stream(data):
+                content = chunk.choices[0].delta.content
+                if content:
+                    yield json.dumps({"delta": content}) + "\n"
+            yield json.dumps({"done": True}) + "\n"
+        except Exception as e:
+            yield json.dumps({"error": f"Error during AI response: {str(e)}"}) + "\n"
+
+    return StreamingResponse(generate(), media_type="application/x-ndjson")
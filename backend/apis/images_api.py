@@ -1,9 +1,10 @@
 from fastapi import APIRouter, Depends, Body, Request
 from fastapi.responses import JSONResponse
 from sqlalchemy.orm import Session
-from sqlalchemy import text
+from sqlalchemy import text, bindparam
 from database import get_db
 from pydantic import BaseModel
+from typing import List
 
 router = APIRouter()
 
@@ -11,6 +12,9 @@ class ImageCreate(BaseModel):
     url: str
     source: str = ''
 
+class ImageLookup(BaseModel):
+    urls: List[str] = []
+
 @router.get("/")
 def get_images(db: Session = Depends(get_db)):
     return db.execute(text("SELECT * FROM Images")).mappings().all()
@@ -79,4 +83,24 @@ def find_image_by_url(url: str, db: Session = Depends(get_db)):
         return JSONResponse(
             status_code=500,
             content={"error": str(e)}
-        )
\ No newline at end of file
+        )
+
+@router.post("/find/batch")
+def find_images_by_urls(lookup: ImageLookup, db: Session = Depends(get_db)):
+    # Resolve many URLs in one query; URLs without an image are left out
+    if not lookup.urls:
+        return {"images": {}}
+
+    try:
+        rows = db.execute(
+            text("SELECT URL, MIN(ImageID) AS ImageID FROM Images WHERE URL IN :urls GROUP BY URL")
+                .bindparams(bindparam("urls", expanding=True)),
+            {"urls": list(set(lookup.urls))}
+        ).mappings().all()
+
+        return {"images": {row["URL"]: row["ImageID"] for row in rows}}
+    except Exception as e:
+        return JSONResponse(
+            status_code=500,
+            content={"error": str(e)}
+        )
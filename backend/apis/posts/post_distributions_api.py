@@ -1,7 +1,8 @@
 from fastapi import APIRouter, Depends
 from sqlalchemy.orm import Session
-from sqlalchemy import text
+from sqlalchemy import text, bindparam
 from database import get_db
+from typing import Dict, List
 
 router = APIRouter()
 
@@ -21,4 +22,20 @@ def delete_post_distribution(post_id: int, platform_id: int, db: Session = Depen
         WHERE PostID = :post AND PlatformID = :plat
     """), {"post": post_id, "plat": platform_id})
     db.commit()
-    return {"status": "Post unassigned from platform"}
\ No newline at end of file
+    return {"status": "Post unassigned from platform"}
+
+def get_platform_ids_for_posts(db: Session, post_ids: List[int]) -> Dict[int, List[int]]:
+    # Platform IDs for many posts in one query, grouped by PostID
+    platform_ids = {post_id: [] for post_id in post_ids}
+    if not post_ids:
+        return platform_ids
+
+    rows = db.execute(text("""
+        SELECT PostID, PlatformID
+        FROM PostDistributions
+        WHERE PostID IN :post_ids
+    """).bindparams(bindparam("post_ids", expanding=True)), {"post_ids": post_ids}).all()
+
+    for post_id, platform_id in rows:
+        platform_ids[post_id].append(platform_id)
+    return platform_ids
@@ -1,8 +1,9 @@
 from fastapi import APIRouter, Depends, Body
 from sqlalchemy.orm import Session
-from sqlalchemy import text
+from sqlalchemy import text, bindparam
 from database import get_db
 from pydantic import BaseModel
+from typing import Dict, List, Optional
 
 router = APIRouter()
 
@@ -10,6 +11,92 @@ class PostImageLink(BaseModel):
     post_id: int
     image_id: int
 
+class BatchImage(BaseModel):
+    url: str
+    source: Optional[str] = None
+    image_id: Optional[int] = None  # Known ID from the client's index; checked before use
+
+class PostImageBatch(BaseModel):
+    post_id: int
+    add: List[BatchImage] = []     # Images to create if needed and link to the post
+    remove: List[int] = []         # Image IDs to unlink from the post
+
+@router.post("/batch")
+def batch_post_images(batch: PostImageBatch, db: Session = Depends(get_db)):
+    # Each image runs in its own savepoint, so one bad image doesn't undo the rest
+    results = []
+
+    for image in batch.add:
+        try:
+            with db.begin_nested():
+                existing = None
+                if image.image_id is not None:
+                    existing = db.execute(
+                        text("SELECT ImageID FROM Images WHERE ImageID = :img AND URL = :url"),
+                        {"img": image.image_id, "url": image.url}
+                    ).first()
+                if not existing:
+                    existing = db.execute(
+                        text("SELECT ImageID FROM Images WHERE URL = :url LIMIT 1"),
+                        {"url": image.url}
+                    ).first()
+
+                if existing:
+                    image_id = existing[0]
+                else:
+                    db.execute(
+                        text("INSERT INTO Images (URL, Source) VALUES (:url, :source)"),
+                        {"url": image.url, "source": image.source or "Uploaded by user"}
+                    )
+                    image_id = db.execute(text("SELECT LAST_INSERT_ID()")).scalar_one()
+
+                linked = db.execute(
+                    text("SELECT COUNT(*) FROM PostImages WHERE PostID = :post AND ImageID = :img"),
+                    {"post": batch.post_id, "img": image_id}
+                ).scalar()
+
+                if linked:
+                    status = "already_linked"
+                else:
+                    db.execute(
+                        text("INSERT INTO PostImages (PostID, ImageID) VALUES (:post, :img)"),
+                        {"post": batch.post_id, "img": image_id}
+                    )
+                    status = "linked"
+
+            results.append({"url": image.url, "image_id": image_id, "status": status})
+        except Exception as e:
+            results.append({"url": image.url, "image_id": None, "status": "failed", "error": str(e)})
+
+    for image_id in batch.remove:
+        try:
+            with db.begin_nested():
+                db.execute(
+                    text("DELETE FROM PostImages WHERE PostID = :post AND ImageID = :img"),
+                    {"post": batch.post_id, "img": image_id}
+                )
+
+                # Drop the image record too if no other post uses it
+                other_associations = db.execute(
+                    text("SELECT COUNT(*) FROM PostImages WHERE ImageID = :img"),
+                    {"img": image_id}
+                ).scalar()
+                if other_associations == 0:
+                    db.execute(text("DELETE FROM Images WHERE ImageID = :img"), {"img": image_id})
+
+            results.append({"url": None, "image_id": image_id, "status": "unlinked"})
+        except Exception as e:
+            results.append({"url": None, "image_id": image_id, "status": "failed", "error": str(e)})
+
+    # Image changes count as a change to the post for syncing clients
+    db.execute(
+        text("UPDATE Posts SET UpdatedAt = CURRENT_TIMESTAMP WHERE PostID = :post"),
+        {"post": batch.post_id}
+    )
+    db.commit()
+
+    return {"post_id": batch.post_id, "results": results}
+
 @router.post("/")
 def add_post_image(link: PostImageLink, db: Session = Depends(get_db)):
     db.execute(
@@ -59,4 +146,25 @@ def remove_post_image(link: PostImageLink, db: Session = Depends(get_db)):
         )
     
     db.commit()
-    return {"status": "Image unlinked from post and deleted if not used elsewhere"}
\ No newline at end of file
+    return {"status": "Image unlinked from post and deleted if not used elsewhere"}
+
+def get_images_for_posts(db: Session, post_ids: List[int]) -> Dict[int, list]:
+    # Images for many posts in one query, grouped by PostID
+    images = {post_id: [] for post_id in post_ids}
+    if not post_ids:
+        return images
+
+    rows = db.execute(text("""
+        SELECT pi.PostID, i.ImageID, i.URL, i.Source
+        FROM Images i
+        JOIN PostImages pi ON i.ImageID = pi.ImageID
+        WHERE pi.PostID IN :post_ids
+    """).bindparams(bindparam("post_ids", expanding=True)), {"post_ids": post_ids}).mappings().all()
+
+    for row in rows:
+        images[row["PostID"]].append({
+            "ImageID": row["ImageID"],
+            "URL": row["URL"],
+            "Source": row["Source"],
+        })
+    return images
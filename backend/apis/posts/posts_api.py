@@ -1,9 +1,11 @@
 from fastapi import APIRouter, Depends, HTTPException
 from sqlalchemy.orm import Session
-from sqlalchemy import text
+from sqlalchemy import text, bindparam
 from database import get_db
 from pydantic import BaseModel
 from typing import List, Optional
+from apis.posts.post_images_api import get_images_for_posts
+from apis.posts.post_distributions_api import get_platform_ids_for_posts
 
 router = APIRouter()
 
@@ -11,7 +13,7 @@ class PostCreate(BaseModel):
     name: str
     date_of_death: str
     content: str = ''
-    images: List[str] = []  # Accept list of image URLs from frontend
+    images: Optional[List[str]] = None  # Image URLs; None leaves the post's images untouched
     platforms: List[int] = []
     created_by: Optional[int] = None  # User ID of the creator
     creator_username: Optional[str] = None  # Username of the creator
@@ -19,6 +21,9 @@ class PostCreate(BaseModel):
 class PlatformSelection(BaseModel):
     platform_ids: List[int]
 
+class BundleRequest(BaseModel):
+    post_ids: List[int]
+
 @router.get("/")
 def get_posts(db: Session = Depends(get_db)):
     # Get posts with creator information
@@ -61,7 +66,8 @@ def create_post(post: PostCreate, db: Session = Depends(get_db)):
             raise Exception("Failed to retrieve inserted post ID")
 
         # Insert Images + Link to Post
-        replace_post_images(db, post_id, post.images)
+        if post.images is not None:
+            replace_post_images(db, post_id, post.images)
         
         # Insert Platform associations
         if post.platforms:
@@ -91,7 +97,8 @@ def update_post(post_id: int, post: PostCreate, db: Session = Depends(get_db)):
             SET Name = :name,
                 DateOfDeath = :dod,
                 Content = :content,
-                CreatedBy = :created_by
+                CreatedBy = :created_by,
+                UpdatedAt = CURRENT_TIMESTAMP
             WHERE PostID = :post_id
         """), {
             "name": post.name,
@@ -101,8 +108,9 @@ def update_post(post_id: int, post: PostCreate, db: Session = Depends(get_db)):
             "post_id": post_id
         })
 
-        # Replace images
-        replace_post_images(db, post_id, post.images)
+        # Replace images (clients using /posts/images/batch leave this out)
+        if post.images is not None:
+            replace_post_images(db, post_id, post.images)
         
         # Replace platform associations
         if post.platforms:
@@ -131,6 +139,104 @@ def update_post(post_id: int, post: PostCreate, db: Session = Depends(get_db)):
         db.rollback()
         raise HTTPException(status_code=500, detail=str(e))
 
+def load_post_bundles(db: Session, post_ids: List[int]):
+    # Posts with their images and platform IDs embedded, in the order requested
+    if not post_ids:
+        return []
+
+    posts = db.execute(text("""
+        SELECT p.*, u.Username as CreatorUsername
+        FROM Posts p
+        LEFT JOIN Users u ON p.CreatedBy = u.UserID
+        WHERE p.PostID IN :post_ids
+    """).bindparams(bindparam("post_ids", expanding=True)), {"post_ids": post_ids}).mappings().all()
+
+    found_ids = [post["PostID"] for post in posts]
+    images = get_images_for_posts(db, found_ids)
+    platform_ids = get_platform_ids_for_posts(db, found_ids)
+
+    bundles = {}
+    for post in posts:
+        bundle = dict(post)
+        bundle["images"] = images[post["PostID"]]
+        bundle["platform_ids"] = platform_ids[post["PostID"]]
+        bundles[post["PostID"]] = bundle
+
+    # Missing posts are left out
+    return [bundles[post_id] for post_id in post_ids if post_id in bundles]
+
+def get_server_time(db: Session) -> str:
+    # Database clock, used as the sync marker so client clocks don't matter
+    return str(db.execute(text("SELECT NOW()")).scalar())
+
+@router.get("/page")
+def get_post_page(cursor: int = 0, limit: int = 100, db: Session = Depends(get_db)):
+    # Keyset pagination: posts after the cursor PostID, oldest first
+    limit = max(1, min(limit, 500))
+    # Taken before reading, so a change made during the read is picked up by the next sync
+    server_time = get_server_time(db)
+    rows = db.execute(text("""
+        SELECT PostID, Name
+        FROM Posts
+        WHERE PostID > :cursor
+        ORDER BY PostID ASC
+        LIMIT :limit
+    """), {"cursor": cursor, "limit": limit + 1}).mappings().all()
+
+    # One extra row tells us whether another page exists
+    items = [dict(row) for row in rows[:limit]]
+    next_cursor = items[-1]["PostID"] if len(rows) > limit else None
+    return {"items": items, "next_cursor": next_cursor, "server_time": server_time}
+
+@router.get("/changes")
+def get_post_changes(updated_since: str, db: Session = Depends(get_db)):
+    try:
+        server_time = get_server_time(db)
+
+        # Created or updated since the marker (>= so nothing in the same second is missed)
+        updated = db.execute(text("""
+            SELECT PostID, Name
+            FROM Posts
+            WHERE UpdatedAt >= :since
+            ORDER BY PostID ASC
+        """), {"since": updated_since}).mappings().all()
+
+        deleted = db.execute(text("""
+            SELECT PostID
+            FROM DeletedPosts
+            WHERE DeletedAt >= :since
+        """), {"since": updated_since}).all()
+
+        return {
+            "updated": [dict(row) for row in updated],
+            "deleted": [row[0] for row in deleted],
+            "server_time": server_time,
+        }
+    except Exception as e:
+        raise HTTPException(status_code=500, detail=f"Error loading post changes: {e}")
+
+@router.post("/bundles")
+def get_post_bundles(request: BundleRequest, db: Session = Depends(get_db)):
+    try:
+        return load_post_bundles(db, request.post_ids)
+    except Exception as e:
+        raise HTTPException(status_code=500, detail=f"Error loading post bundles: {e}")
+
+# Must be declared before /{post_id} so "lookup" is not parsed as an ID
+@router.get("/lookup")
+def lookup_post_id(name: str, db: Session = Depends(get_db)):
+    # Most recent post with this exact name
+    row = db.execute(text("""
+        SELECT PostID FROM Posts
+        WHERE Name = :name
+        ORDER BY PostID DESC LIMIT 1
+    """), {"name": name}).first()
+
+    if not row:
+        raise HTTPException(status_code=404, detail="Post not found")
+
+    return {"PostID": row[0]}
+
 @router.get("/{post_id}")
 def get_post(post_id: int, db: Session = Depends(get_db)):
     try:
@@ -170,9 +276,22 @@ def get_post(post_id: int, db: Session = Depends(get_db)):
         result["platforms"] = list(platforms)
         
         return result
+    except HTTPException:
+        raise
     except Exception as e:
         raise HTTPException(status_code=500, detail=str(e))
 
+@router.get("/{post_id}/bundle")
+def get_post_bundle(post_id: int, db: Session = Depends(get_db)):
+    try:
+        bundles = load_post_bundles(db, [post_id])
+    except Exception as e:
+        raise HTTPException(status_code=500, detail=f"Error loading post bundle: {e}")
+
+    if not bundles:
+        raise HTTPException(status_code=404, detail="Post not found")
+    return bundles[0]
+
 @router.delete("/{post_id}")
 def delete_post(post_id: int, db: Session = Depends(get_db)):
     # First, get all image IDs associated with this post
@@ -206,6 +325,15 @@ def delete_post(post_id: int, db: Session = Depends(get_db)):
         {"id": post_id}
     )
     
+    # Leave a tombstone so clients syncing changes see the deletion
+    db.execute(
+        text("""
+            INSERT INTO DeletedPosts (PostID) VALUES (:id)
+            ON DUPLICATE KEY UPDATE DeletedAt = CURRENT_TIMESTAMP
+        """),
+        {"id": post_id}
+    )
+    
     db.commit()
     return {"status": "Post and associated images deleted"}
 
@@ -239,6 +367,12 @@ def update_post_platforms(post_id: int, platform_selection: PlatformSelection, d
                 {"post_id": post_id, "platform_id": platform_id}
             )
         
+        # Platform changes count as a change to the post for syncing clients
+        db.execute(
+            text("UPDATE Posts SET UpdatedAt = CURRENT_TIMESTAMP WHERE PostID = :post_id"),
+            {"post_id": post_id}
+        )
+        
         db.commit()
         return {"status": "Post platforms updated successfully"}
     except Exception as e:
@@ -140,6 +140,8 @@ def run_init_sql():
                         Content TEXT,
                         CreatedBy INT,
                         CreatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        UpdatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        INDEX idx_posts_updatedat (UpdatedAt),
                         CONSTRAINT fk_posts_users FOREIGN KEY (CreatedBy)
                         REFERENCES Users(UserID) ON DELETE SET NULL
                     )
@@ -185,6 +187,8 @@ def run_init_sql():
                 else:
                     print("[DATABASE] All required tables already exist.")
 
+                run_migrations(conn)
+
                 return True
 
             except Exception as e:
@@ -195,3 +199,30 @@ def run_init_sql():
     except Exception as e:
         print(f"[DATABASE] Error during initialization: {str(e)}")
         return False
+
+def run_migrations(conn):
+    """Apply additive schema changes to an existing database. Safe to run on every startup."""
+    # Posts.UpdatedAt lets clients ask for posts changed since their last sync
+    has_updated_at = conn.execute(text("""
+        SELECT COUNT(*) FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Posts' AND COLUMN_NAME = 'UpdatedAt'
+    """)).scalar()
+
+    if not has_updated_at:
+        conn.execute(text("""
+        ALTER TABLE Posts
+            ADD COLUMN UpdatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+            ADD INDEX idx_posts_updatedat (UpdatedAt)
+        """))
+        print("[DATABASE] Added Posts.UpdatedAt column.")
+
+    # Tombstones for deleted posts, so deletions can be synced too
+    conn.execute(text("""
+    CREATE TABLE IF NOT EXISTS DeletedPosts (
+        PostID INT PRIMARY KEY,
+        DeletedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+        INDEX idx_deletedposts_deletedat (DeletedAt)
+    )
+    """))
+
+    conn.commit()